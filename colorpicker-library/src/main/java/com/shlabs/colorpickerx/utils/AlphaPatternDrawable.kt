@@ -23,25 +23,30 @@ import kotlin.math.ceil
 
 class AlphaPatternDrawable(private val rectangleSize: Int) : Drawable() {
     private val paint = Paint()
-    private val paintWhite = Paint()
-    private val paintGray = Paint()
-
-    private var numRectanglesHorizontal = 0
-    private var numRectanglesVertical = 0
 
     /**
      * Bitmap in which the pattern will be cached.
      * This is so the pattern will not have to be recreated each time draw() gets called.
      * Because recreating the pattern i rather expensive. I will only be recreated if the size changes.
+     * It is shared with every other drawable of the same size through [SharedRenderCache].
      */
     private var bitmap: Bitmap? = null
 
-    init {
-        paintWhite.color = Color.parseColor("#FFFFFFFF")
-        paintGray.color = Color.parseColor("#FFCBCBCB")
-    }
+    /**
+     * Config of the cached pattern, the pattern is opaque so RGB_565 takes half the memory for the same look.
+     */
+    var bitmapConfig: Bitmap.Config = Bitmap.Config.ARGB_8888
+        set(value) {
+            if (field != value) {
+                field = value
+                generatePatternBitmap()
+            }
+        }
 
     override fun draw(canvas: Canvas) {
+        if (bitmap == null) {
+            generatePatternBitmap()
+        }
         if (bitmap != null && !bitmap!!.isRecycled) {
             canvas.drawBitmap(bitmap!!, null, bounds, paint)
         }
@@ -62,39 +67,58 @@ class AlphaPatternDrawable(private val rectangleSize: Int) : Drawable() {
 
     override fun onBoundsChange(bounds: Rect) {
         super.onBoundsChange(bounds)
-        val height = bounds.height()
-        val width = bounds.width()
-        numRectanglesHorizontal = ceil((width / rectangleSize).toDouble()).toInt()
-        numRectanglesVertical = ceil((height / rectangleSize).toDouble()).toInt()
         generatePatternBitmap()
     }
 
     /**
-     * This will generate a bitmap with the pattern as big as the rectangle we were allow to draw on.
-     * We do this to chache the bitmap so we don't need to recreate it each time draw() is called since it takes a few
-     * milliseconds
+     * Let go of the shared pattern, it is picked up again on the next draw.
      */
+    fun releasePattern() {
+        bitmap?.let { SharedRenderCache.releaseAlphaPattern(it) }
+        bitmap = null
+    }
+
     private fun generatePatternBitmap() {
+        releasePattern()
         if (bounds.width() <= 0 || bounds.height() <= 0) {
             return
         }
 
-        bitmap = Bitmap.createBitmap(bounds.width(), bounds.height(), Bitmap.Config.ARGB_8888)
-        val canvas = Canvas(bitmap!!)
-
-        val r = Rect()
-        var verticalStartWhite = true
-        for (i in 0..numRectanglesVertical) {
-            var isWhite = verticalStartWhite
-            for (j in 0..numRectanglesHorizontal) {
-                r.top = i * rectangleSize
-                r.left = j * rectangleSize
-                r.bottom = r.top + rectangleSize
-                r.right = r.left + rectangleSize
-                canvas.drawRect(r, if (isWhite) paintWhite else paintGray)
-                isWhite = !isWhite
+        bitmap = SharedRenderCache.acquireAlphaPattern(bounds.width(), bounds.height(), rectangleSize, bitmapConfig)
+    }
+
+    companion object {
+        private val paintWhite = Paint().apply { color = Color.parseColor("#FFFFFFFF") }
+        private val paintGray = Paint().apply { color = Color.parseColor("#FFCBCBCB") }
+
+        /**
+         * This will generate a bitmap with the pattern as big as the rectangle we were allow to draw on.
+         * We do this to chache the bitmap so we don't need to recreate it each time draw() is called since it takes a few
+         * milliseconds
+         */
+        @JvmStatic
+        fun createPattern(width: Int, height: Int, rectangleSize: Int, config: Bitmap.Config): Bitmap {
+            val numRectanglesHorizontal = ceil((width / rectangleSize).toDouble()).toInt()
+            val numRectanglesVertical = ceil((height / rectangleSize).toDouble()).toInt()
+
+            val bitmap = Bitmap.createBitmap(width, height, config)
+            val canvas = Canvas(bitmap)
+
+            val r = Rect()
+            var verticalStartWhite = true
+            for (i in 0..numRectanglesVertical) {
+                var isWhite = verticalStartWhite
+                for (j in 0..numRectanglesHorizontal) {
+                    r.top = i * rectangleSize
+                    r.left = j * rectangleSize
+                    r.bottom = r.top + rectangleSize
+                    r.right = r.left + rectangleSize
+                    canvas.drawRect(r, if (isWhite) paintWhite else paintGray)
+                    isWhite = !isWhite
+                }
+                verticalStartWhite = !verticalStartWhite
             }
-            verticalStartWhite = !verticalStartWhite
+            return bitmap
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps bitmaps that are no longer used so they can be handed out again instead of allocating new ones.
+ * <p>
+ * From KitKat on any pooled bitmap with a big enough allocation is reconfigured to the requested size,
+ * before that only a bitmap of the exact same size and config can be reused.
+ * The content of a reused bitmap is undefined, the caller is expected to overwrite all of it.
+ */
+public final class BitmapPool {
+
+    private final ArrayList<Bitmap> bitmaps = new ArrayList<>();
+    private final int maxSize;
+
+    /**
+     * @param maxSize how many bitmaps are kept at most, the oldest are dropped first
+     */
+    public BitmapPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get a bitmap of the given size and config, reusing a pooled one if possible.
+     *
+     * @return a mutable bitmap with undefined content
+     */
+    public Bitmap obtain(int width, int height, Bitmap.Config config) {
+        synchronized (this) {
+            final int needed = width * height * getBytesPerPixel(config);
+
+            int best = -1;
+            int bestBytes = Integer.MAX_VALUE;
+            for (int i = 0; i < bitmaps.size(); i++) {
+                final Bitmap bitmap = bitmaps.get(i);
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+                    bitmaps.remove(i);
+                    return bitmap;
+                }
+
+                // Take the smallest one that fits so the big ones are still there when needed.
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                    final int bytes = bitmap.getAllocationByteCount();
+                    if (bytes >= needed && bytes < bestBytes) {
+                        best = i;
+                        bestBytes = bytes;
+                    }
+                }
+            }
+
+            if (best != -1) {
+                final Bitmap bitmap = bitmaps.remove(best);
+                bitmap.reconfigure(width, height, config);
+                return bitmap;
+            }
+        }
+
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Give a bitmap back to the pool, it must not be used by the caller anymore.
+     *
+     * @param bitmap the bitmap, ignored if null, immutable or recycled
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || !bitmap.isMutable() || bitmap.isRecycled() || bitmaps.contains(bitmap)) {
+            return;
+        }
+
+        bitmaps.add(bitmap);
+        while (bitmaps.size() > maxSize) {
+            bitmaps.remove(0);
+        }
+    }
+
+    public synchronized void clear() {
+        bitmaps.clear();
+    }
+
+    /**
+     * The memory used by the bitmap, which can be more than its size if it has been reconfigured.
+     */
+    public static int getBytes(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+
+    public static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        return 4;
+    }
+}
@@ -0,0 +1,11 @@
+package com.shlabs.colorpickerx.utils
+
+import androidx.annotation.IntDef
+
+@IntDef(CacheConfig.ARGB_8888, CacheConfig.RGB_565)
+annotation class CacheConfig {
+    companion object {
+        const val ARGB_8888 = 0
+        const val RGB_565 = 1
+    }
+}
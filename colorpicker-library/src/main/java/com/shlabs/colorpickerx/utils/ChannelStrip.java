@@ -0,0 +1,158 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * The gradient of one channel of a color as a bitmap one pixel high, from the lowest value
+ * of the channel on the left to the highest on the right, with the other channels as they are.
+ * <p>
+ * The strip is only rendered again when one of the other channels has changed, moving the channel
+ * itself leaves it as it is. {@link #WIDTH} pixels are enough for every step of an 8 bit channel,
+ * the strip is stretched to the size of the slider by the shader it is drawn with.
+ */
+public final class ChannelStrip {
+
+    /* One pixel per 8 bit step. */
+    public static final int WIDTH = 256;
+
+    @ColorChannel
+    private final int channel;
+    private final int[] pixels = new int[WIDTH];
+    private Bitmap bitmap;
+
+    /* What the other channels were when the strip was rendered. */
+    private long key;
+    private boolean valid;
+
+    /**
+     * @param channel the channel the strip shows
+     */
+    public ChannelStrip(@ColorChannel int channel) {
+        this.channel = channel;
+    }
+
+    @ColorChannel
+    public int getChannel() {
+        return channel;
+    }
+
+    /**
+     * Get the bitmap of the strip, the same one for the life of the strip.
+     * Its content changes with {@link #update(HsvColor)}.
+     */
+    public Bitmap getBitmap() {
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(WIDTH, 1, Bitmap.Config.ARGB_8888);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Render the strip again if the other channels are no longer the ones it was rendered for.
+     *
+     * @param color the current color
+     * @return {@code true} if the strip has changed
+     */
+    public boolean update(HsvColor color) {
+        final long key = key(channel, color);
+        if (valid && this.key == key) {
+            return false;
+        }
+
+        rasterize(channel, color, pixels);
+        getBitmap().setPixels(pixels, 0, WIDTH, 0, 0, WIDTH, 1);
+        this.key = key;
+        valid = true;
+        return true;
+    }
+
+    /*
+     * Everything the strip depends on, the channel itself and for the color channels the alpha left out.
+     */
+    private static long key(@ColorChannel int channel, HsvColor color) {
+        final int rgb = color.getColor() & 0x00ffffff;
+        switch (channel) {
+            case ColorChannel.RED:
+                return rgb & 0x0000ffff;
+            case ColorChannel.GREEN:
+                return rgb & 0x00ff00ff;
+            case ColorChannel.BLUE:
+                return rgb & 0x00ffff00;
+            case ColorChannel.HUE:
+                return pack(color.getSat(), color.getVal());
+            case ColorChannel.SATURATION:
+                return pack(color.getHue(), color.getVal());
+            case ColorChannel.VALUE:
+                return pack(color.getHue(), color.getSat());
+            default:
+                return rgb;
+        }
+    }
+
+    private static long pack(float first, float second) {
+        return ((long) Float.floatToIntBits(first) << 32) | (Float.floatToIntBits(second) & 0xffffffffL);
+    }
+
+    /**
+     * Fill the pixels of a strip of the given channel.
+     *
+     * @param channel the channel of the strip
+     * @param color   the color the other channels are taken from
+     * @param pixels  the destination, {@link #WIDTH} pixels
+     */
+    public static void rasterize(@ColorChannel int channel, HsvColor color, int[] pixels) {
+        final int rgb = color.getColor() & 0x00ffffff;
+        final float step = 1f / (WIDTH - 1);
+
+        switch (channel) {
+            case ColorChannel.RED:
+            case ColorChannel.GREEN:
+            case ColorChannel.BLUE: {
+                // Straight from the 8 bit values, one pixel each.
+                final int shift = (2 - channel) * 8;
+                final int base = 0xff000000 | (rgb & ~(0xff << shift));
+                for (int i = 0; i < WIDTH; i++) {
+                    pixels[i] = base | (i << shift);
+                }
+                break;
+            }
+            case ColorChannel.HUE:
+                for (int i = 0; i < WIDTH; i++) {
+                    pixels[i] = HsvColor.HSVToColor(0xff, i * step * 360f, color.getSat(), color.getVal());
+                }
+                break;
+            case ColorChannel.SATURATION:
+                for (int i = 0; i < WIDTH; i++) {
+                    pixels[i] = HsvColor.HSVToColor(0xff, color.getHue(), i * step, color.getVal());
+                }
+                break;
+            case ColorChannel.VALUE:
+                for (int i = 0; i < WIDTH; i++) {
+                    pixels[i] = HsvColor.HSVToColor(0xff, color.getHue(), color.getSat(), i * step);
+                }
+                break;
+            default:
+                for (int i = 0; i < WIDTH; i++) {
+                    pixels[i] = (i << 24) | rgb;
+                }
+                break;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnColorSelectionListener;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers color changes to an {@link OnColorSelectionListener}, either limited to a maximum rate
+ * or debounced until the changes stop for a while. The last change is always delivered.
+ * Committed colors are delivered right away and drop any change still waiting.
+ * <p>
+ * Must be fed from the main thread, the listener is called on the main thread
+ * or on the executor if one has been set.
+ */
+public final class ColorChangeDispatcher {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    private OnColorSelectionListener listener;
+    private Executor executor;
+
+    private long minIntervalMs;
+    private long debounceMs;
+
+    private long lastDispatchTime;
+    private int pendingColor;
+    private boolean pending;
+    private boolean flushScheduled;
+
+    public void setListener(@Nullable OnColorSelectionListener listener) {
+        this.listener = listener;
+        cancel();
+    }
+
+    /**
+     * Limit how often the changes are delivered.
+     *
+     * @param perSecond the maximum number of changes per second, 0 for no limit
+     */
+    public void setMaxRate(int perSecond) {
+        minIntervalMs = perSecond > 0 ? 1000L / perSecond : 0;
+    }
+
+    /**
+     * Only deliver a change once there has been no other change for the given time.
+     * Takes precedence over the maximum rate.
+     *
+     * @param ms the quiet time in milliseconds, 0 to disable
+     */
+    public void setDebounce(long ms) {
+        debounceMs = Math.max(0, ms);
+    }
+
+    /**
+     * Run the listener on the given executor instead of the main thread.
+     *
+     * @param executor the executor or null for the main thread
+     */
+    public void setExecutor(@Nullable Executor executor) {
+        this.executor = executor;
+    }
+
+    public void onColorChanged(int color) {
+        if (listener == null) {
+            return;
+        }
+
+        pendingColor = color;
+        pending = true;
+
+        if (debounceMs > 0) {
+            handler.removeCallbacks(flushRunnable);
+            handler.postDelayed(flushRunnable, debounceMs);
+            flushScheduled = true;
+            return;
+        }
+
+        final long wait = lastDispatchTime + minIntervalMs - SystemClock.uptimeMillis();
+        if (wait <= 0) {
+            flush();
+        } else if (!flushScheduled) {
+            handler.postDelayed(flushRunnable, wait);
+            flushScheduled = true;
+        }
+    }
+
+    public void onColorCommitted(int color) {
+        cancel();
+        if (listener == null) {
+            return;
+        }
+
+        lastDispatchTime = SystemClock.uptimeMillis();
+        final OnColorSelectionListener listener = this.listener;
+        if (executor != null) {
+            executor.execute(() -> listener.onColorCommitted(color));
+        } else {
+            listener.onColorCommitted(color);
+        }
+    }
+
+    /**
+     * Drop the change waiting to be delivered, if any.
+     */
+    public void cancel() {
+        if (flushScheduled) {
+            handler.removeCallbacks(flushRunnable);
+            flushScheduled = false;
+        }
+        pending = false;
+    }
+
+    private void flush() {
+        if (flushScheduled) {
+            handler.removeCallbacks(flushRunnable);
+            flushScheduled = false;
+        }
+
+        if (!pending || listener == null) {
+            return;
+        }
+        pending = false;
+
+        lastDispatchTime = SystemClock.uptimeMillis();
+        final int color = pendingColor;
+        final OnColorSelectionListener listener = this.listener;
+        if (executor != null) {
+            executor.execute(() -> listener.onColorChanged(color));
+        } else {
+            listener.onColorChanged(color);
+        }
+    }
+}
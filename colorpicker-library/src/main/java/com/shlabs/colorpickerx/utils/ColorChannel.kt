@@ -0,0 +1,17 @@
+package com.shlabs.colorpickerx.utils
+
+import androidx.annotation.IntDef
+
+@IntDef(ColorChannel.RED, ColorChannel.GREEN, ColorChannel.BLUE, ColorChannel.HUE, ColorChannel.SATURATION,
+        ColorChannel.VALUE, ColorChannel.ALPHA)
+annotation class ColorChannel {
+    companion object {
+        const val RED = 0
+        const val GREEN = 1
+        const val BLUE = 2
+        const val HUE = 3
+        const val SATURATION = 4
+        const val VALUE = 5
+        const val ALPHA = 6
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * A color model a picker can pick in: a slider beside a plane, like the hue beside the
+ * saturation / value plane of HSV. Implement it to give {@link com.shlabs.colorpickerx.views.CustomPickerSelector}
+ * another model, the built in ones are in {@link ColorModels}.
+ * <p>
+ * The components are positions on the panels: the slider from 0 at the bottom to {@link #SLIDER_RANGE}
+ * at the top, which is the hue in degrees for the hue based models, and the plane from 0 to 1 both
+ * left to right and bottom to top. The conversions must not allocate, they run on every touch.
+ * <p>
+ * Models are used from several threads at once, the planes are rendered in the background,
+ * they must not keep any state.
+ */
+public interface ColorModel {
+
+    /* The slider goes from 0 at the bottom to this at the top. */
+    float SLIDER_RANGE = 360f;
+
+    /* Indexes of the components in the arrays. */
+    int SLIDER = 0;
+    int X = 1;
+    int Y = 2;
+
+    /**
+     * @return {@code true} if the slider wraps around, like a hue
+     */
+    boolean isSliderCyclic();
+
+    /**
+     * Convert the components to a packed ARGB color.
+     *
+     * @param alpha  the alpha component, 0 - 255
+     * @param slider the position on the slider, 0 - {@link #SLIDER_RANGE}
+     * @param x      the position across the plane, 0 - 1
+     * @param y      the position up the plane, 0 - 1
+     * @return the color as #argb, the closest one if the components are out of the sRGB gamut
+     */
+    int toColor(int alpha, float slider, float x, float y);
+
+    /**
+     * Convert a packed ARGB color to components, the alpha is ignored.
+     *
+     * @param color      the color as #argb
+     * @param components the slider, x and y positions. They hold the current ones when called,
+     *                   what the color doesn't define, like the hue of a gray, is kept
+     */
+    void fromColor(int color, float[] components);
+
+    /**
+     * Move the components to the closest ones that are in the sRGB gamut, if they aren't.
+     *
+     * @param components the slider, x and y positions
+     */
+    void clampToGamut(float[] components);
+
+    /**
+     * Fill one row of the plane, x going from 0 on the first pixel to 1 on the last one.
+     * What is out of the sRGB gamut is transparent.
+     *
+     * @param slider the position on the slider
+     * @param y      the position of the row up the plane, 0 - 1
+     * @param pixels the destination
+     * @param offset where the row starts in the destination
+     * @param width  the number of pixels of the row
+     */
+    void rasterizeRow(float slider, float y, int[] pixels, int offset, int width);
+
+    /**
+     * Get the color the slider shows at a position.
+     *
+     * @param slider the position on the slider
+     * @return the color as #argb, opaque
+     */
+    int getSliderColor(float slider);
+}
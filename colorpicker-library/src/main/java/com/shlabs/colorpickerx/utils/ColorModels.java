@@ -0,0 +1,59 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * The color models that come with the library.
+ */
+public final class ColorModels {
+
+    /* Hue, saturation and value, the default. */
+    public static final ColorModel HSV = new HsvModel();
+    /* Hue, saturation and lightness. */
+    public static final ColorModel HSL = new HslModel();
+    /* Hue, whiteness and blackness. */
+    public static final ColorModel HWB = new HwbModel();
+    /* CIELab, lightness on the slider and a / b on the plane. */
+    public static final ColorModel LAB = new LabModel();
+    /* OKLCH, hue on the slider and chroma / lightness on the plane. */
+    public static final ColorModel OKLCH = new OklchModel();
+
+    private ColorModels() {
+    }
+
+    /**
+     * Get the model of a color space.
+     *
+     * @param colorSpace the color space
+     * @return the model, HSV if the color space is unknown
+     */
+    public static ColorModel forColorSpace(@PickerColorSpace int colorSpace) {
+        switch (colorSpace) {
+            case PickerColorSpace.HSL:
+                return HSL;
+            case PickerColorSpace.HWB:
+                return HWB;
+            case PickerColorSpace.LAB:
+                return LAB;
+            case PickerColorSpace.OKLCH:
+                return OKLCH;
+            default:
+                return HSV;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * Hue on the slider, saturation across and lightness up the plane.
+ * Converted through HSV, which shares the hue.
+ */
+final class HslModel implements ColorModel {
+
+    @Override
+    public boolean isSliderCyclic() {
+        return true;
+    }
+
+    @Override
+    public int toColor(int alpha, float slider, float x, float y) {
+        final float lightness = clamp(y);
+        final float val = lightness + clamp(x) * Math.min(lightness, 1f - lightness);
+        final float sat = val > 0f ? 2f * (1f - lightness / val) : 0f;
+        return HsvColor.HSVToColor(alpha, slider, sat, val);
+    }
+
+    @Override
+    public void fromColor(int color, float[] components) {
+        final float saturation = components[X];
+        HsvColor.RGBToHSV(color, components);
+        final float val = components[Y];
+        final float lightness = val * (1f - components[X] / 2f);
+        final float range = Math.min(lightness, 1f - lightness);
+        // Black and white have no saturation, the one we have is kept like the hue of a gray.
+        components[X] = range > 0f ? (val - lightness) / range : saturation;
+        components[Y] = lightness;
+    }
+
+    @Override
+    public void clampToGamut(float[] components) {
+    }
+
+    @Override
+    public void rasterizeRow(float slider, float y, int[] pixels, int offset, int width) {
+        final float step = 1f / Math.max(1, width - 1);
+        for (int x = 0; x < width; x++) {
+            pixels[offset + x] = toColor(0xff, slider, x * step, y);
+        }
+    }
+
+    @Override
+    public int getSliderColor(float slider) {
+        return HsvColor.HSVToColor(0xff, slider, 1f, 1f);
+    }
+
+    private static float clamp(float value) {
+        return value < 0f ? 0f : (value > 1f ? 1f : value);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * Allocation free HSV color holding the current alpha, hue, saturation and value.
+ * The packed ARGB color is cached and only recomputed once one of the components changes,
+ * so it is cheap to call {@link #getColor()} as often as needed.
+ * <p>
+ * The conversions give the same results as {@link android.graphics.Color#HSVToColor(int, float[])}
+ * and {@link android.graphics.Color#RGBToHSV(int, int, int, float[])} but work on primitives only,
+ * except that a gray keeps the current hue instead of resetting it to 0.
+ */
+public final class HsvColor {
+
+    /* Indexes of the intermediate channels used by the sextant table. */
+    private static final int V = 0;
+    private static final int P = 1;
+    private static final int Q = 2;
+    private static final int T = 3;
+
+    /*
+     * For every 60 degrees sextant of the hue circle the channel that ends up
+     * in red, green and blue. Three entries per sextant.
+     */
+    private static final int[] SEXTANT_TABLE = {
+            V, T, P,
+            Q, V, P,
+            P, V, T,
+            P, Q, V,
+            T, P, V,
+            V, P, Q
+    };
+
+    private int alpha = 0xff;
+    private float hue = 360f;
+    private float sat = 0f;
+    private float val = 0f;
+
+    private int color;
+    private boolean dirty = true;
+    private final float[] scratch = new float[3];
+
+    public int getAlpha() {
+        return alpha;
+    }
+
+    public float getHue() {
+        return hue;
+    }
+
+    public float getSat() {
+        return sat;
+    }
+
+    public float getVal() {
+        return val;
+    }
+
+    /**
+     * Get the packed ARGB color, only converted again if a component changed since the last call.
+     *
+     * @return the color as #argb
+     */
+    public int getColor() {
+        if (dirty) {
+            color = HSVToColor(alpha, hue, sat, val);
+            dirty = false;
+        }
+        return color;
+    }
+
+    /**
+     * Set all the components at once.
+     *
+     * @return {@code true} if any of the components changed
+     */
+    public boolean set(int alpha, float hue, float sat, float val) {
+        if (this.alpha == alpha && this.hue == hue && this.sat == sat && this.val == val) {
+            return false;
+        }
+        this.alpha = alpha;
+        this.hue = hue;
+        this.sat = sat;
+        this.val = val;
+        dirty = true;
+        return true;
+    }
+
+    public boolean setAlpha(int alpha) {
+        return set(alpha, hue, sat, val);
+    }
+
+    public boolean setHue(float hue) {
+        return set(alpha, hue, sat, val);
+    }
+
+    public boolean setSatVal(float sat, float val) {
+        return set(alpha, hue, sat, val);
+    }
+
+    /**
+     * Set the components from a packed ARGB color.
+     * Grays have no hue, the current one is kept so it doesn't jump back to red.
+     *
+     * @param color the color as #argb
+     * @return {@code true} if any of the components changed
+     */
+    public boolean setColor(int color) {
+        scratch[0] = hue;
+        RGBToHSV(color, scratch);
+
+        boolean changed = set(color >>> 24, scratch[0], scratch[1], scratch[2]);
+        if (changed) {
+            // We already know the exact color, no need to convert it back.
+            this.color = color;
+            dirty = false;
+        }
+        return changed;
+    }
+
+    /**
+     * Convert a packed ARGB color to HSV components without allocating, the alpha is ignored.
+     *
+     * @param color the color as #argb
+     * @param hsv   filled with the hue (0 - 360), saturation (0 - 1) and value (0 - 1).
+     *              A gray has no hue, the one in hsv[0] is kept
+     */
+    public static void RGBToHSV(int color, float[] hsv) {
+        final int r = (color >> 16) & 0xff;
+        final int g = (color >> 8) & 0xff;
+        final int b = color & 0xff;
+
+        final int max = Math.max(r, Math.max(g, b));
+        final int min = Math.min(r, Math.min(g, b));
+        final int delta = max - min;
+
+        float h = hsv[0];
+        float s = 0f;
+        if (delta != 0) {
+            s = (float) delta / max;
+            if (r == max) {
+                h = (float) (g - b) / delta;
+            } else if (g == max) {
+                h = 2f + (float) (b - r) / delta;
+            } else {
+                h = 4f + (float) (r - g) / delta;
+            }
+            h *= 60f;
+            if (h < 0f) {
+                h += 360f;
+            }
+        }
+
+        hsv[0] = h;
+        hsv[1] = s;
+        hsv[2] = max / 255f;
+    }
+
+    /**
+     * Convert HSV components to a packed ARGB color.
+     *
+     * @param alpha the alpha component, 0 - 255
+     * @param hue   the hue in degrees, 0 - 360
+     * @param sat   the saturation, 0 - 1
+     * @param val   the value, 0 - 1
+     * @return the color as #argb
+     */
+    public static int HSVToColor(int alpha, float hue, float sat, float val) {
+        sat = sat < 0f ? 0f : (sat > 1f ? 1f : sat);
+        val = val < 0f ? 0f : (val > 1f ? 1f : val);
+
+        final int v = Math.round(val * 255f);
+        if (sat <= 0f) {
+            return (alpha << 24) | (v << 16) | (v << 8) | v;
+        }
+
+        final float hx = (hue < 0f || hue >= 360f) ? 0f : hue / 60f;
+        final int sextant = (int) hx;
+        final float f = hx - sextant;
+
+        final int p = Math.round((1f - sat) * val * 255f);
+        final int q = Math.round((1f - sat * f) * val * 255f);
+        final int t = Math.round((1f - sat * (1f - f)) * val * 255f);
+
+        final int index = sextant * 3;
+        final int r = pick(SEXTANT_TABLE[index], v, p, q, t);
+        final int g = pick(SEXTANT_TABLE[index + 1], v, p, q, t);
+        final int b = pick(SEXTANT_TABLE[index + 2], v, p, q, t);
+
+        return (alpha << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int pick(int channel, int v, int p, int q, int t) {
+        switch (channel) {
+            case V:
+                return v;
+            case P:
+                return p;
+            case Q:
+                return q;
+            default:
+                return t;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * The hue / saturation wheel at full value as a bitmap, the hue goes counter clockwise
+ * from red on the right and the saturation from 0 at the center to 1 on the edge.
+ * <p>
+ * Filled from a {@link PolarLut} and a table of the fully saturated color of every angle,
+ * so no pixel needs an atan2 or an HSV conversion. A color of value v is the color at
+ * full value scaled by v, the value is applied when drawing with a color filter and
+ * never needs the wheel to be rendered again.
+ * <p>
+ * Wheels are shared by all the views with the same diameter through {@link SharedRenderCache}.
+ * The corners are transparent so wheels are always ARGB_8888.
+ */
+public final class HueSatWheel {
+
+    /* The fully saturated color of every angle of the lookup table. */
+    private static int[] hueColors;
+
+    private HueSatWheel() {
+    }
+
+    /**
+     * Render the wheel that fills the disc of the table.
+     *
+     * @param lut the table of the diameter of the wheel
+     * @return a square bitmap of the diameter of the table
+     */
+    public static Bitmap create(PolarLut lut) {
+        final int size = lut.getDiameter();
+        final Bitmap wheel = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        wheel.setPixels(rasterize(lut), 0, size, 0, 0, size, size);
+        return wheel;
+    }
+
+    private static int[] rasterize(PolarLut lut) {
+        final int[] entries = lut.getEntries();
+        final int[] hues = getHueColors();
+        final int[] pixels = new int[entries.length];
+
+        for (int i = 0; i < entries.length; i++) {
+            final int entry = entries[i];
+            if (entry == 0) {
+                continue;
+            }
+
+            // Mix white with the hue color by the saturation.
+            final int c = hues[PolarLut.getAngle(entry)];
+            final int s = PolarLut.getRadius(entry);
+            final int r = 255 - ((255 - ((c >> 16) & 0xff)) * s + 127) / 255;
+            final int g = 255 - ((255 - ((c >> 8) & 0xff)) * s + 127) / 255;
+            final int b = 255 - ((255 - (c & 0xff)) * s + 127) / 255;
+            pixels[i] = PolarLut.getCoverage(entry) << 24 | r << 16 | g << 8 | b;
+        }
+        return pixels;
+    }
+
+    /**
+     * The hue of an angle of the lookup table.
+     *
+     * @param angle the angle in {@link PolarLut#ANGLE_STEPS} of a turn
+     * @return the hue in degrees
+     */
+    public static float angleToHue(int angle) {
+        return angle * 360f / PolarLut.ANGLE_STEPS;
+    }
+
+    private static synchronized int[] getHueColors() {
+        if (hueColors == null) {
+            hueColors = new int[PolarLut.ANGLE_STEPS];
+            for (int i = 0; i < PolarLut.ANGLE_STEPS; i++) {
+                hueColors[i] = HsvColor.HSVToColor(0xff, angleToHue(i), 1f, 1f);
+            }
+        }
+        return hueColors;
+    }
+}
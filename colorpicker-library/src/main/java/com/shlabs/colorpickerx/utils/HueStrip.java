@@ -0,0 +1,61 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * The hue gradient as a bitmap one pixel wide, from 360 at the top to 0 at the bottom,
+ * or the slider of another {@link ColorModel} with the colors from {@link ColorModel#getSliderColor(float)}.
+ * Every column of the hue panel is the same so the strip is simply stretched to the width of the panel.
+ * <p>
+ * Strips are shared by all the pickers with the same panel height and bitmap config through
+ * {@link SharedRenderCache}, RGB_565 strips are dithered along the strip.
+ */
+public final class HueStrip {
+
+    private HueStrip() {
+    }
+
+    /**
+     * Render the strip for a hue panel of the given height.
+     *
+     * @param height height of the panel in pixels
+     * @param config ARGB_8888 or RGB_565
+     * @param model  the color model of the slider
+     * @return a bitmap 1 pixel wide and height pixels high
+     */
+    public static Bitmap create(int height, Bitmap.Config config, ColorModel model) {
+        final Bitmap strip = Bitmap.createBitmap(1, height, config);
+        strip.setPixels(rasterize(height, config == Bitmap.Config.RGB_565, model), 0, 1, 0, 0, 1, height);
+        return strip;
+    }
+
+    private static int[] rasterize(int height, boolean dither, ColorModel model) {
+        final int[] colors = new int[height];
+        final float step = ColorModel.SLIDER_RANGE / height;
+
+        float h = ColorModel.SLIDER_RANGE;
+        for (int i = 0; i < height; i++) {
+            final int color = model.getSliderColor(h);
+            colors[i] = dither ? OrderedDither.toRgb565(color, 0, i) : color;
+            h -= step;
+        }
+        return colors;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * Hue on the slider, whiteness from 1 on the left of the plane to 0 on the right and blackness
+ * down it, so the top left corner is white and the top right one the pure hue, as in HSV.
+ * Up the plane is the HSV value.
+ * Where whiteness and blackness add up to more than 1 the color is a gray.
+ */
+final class HwbModel implements ColorModel {
+
+    @Override
+    public boolean isSliderCyclic() {
+        return true;
+    }
+
+    @Override
+    public int toColor(int alpha, float slider, float x, float y) {
+        final float whiteness = Math.max(0f, 1f - x);
+        final float blackness = Math.max(0f, 1f - y);
+        final float total = whiteness + blackness;
+        if (total >= 1f) {
+            final int gray = Math.round(whiteness / total * 255f);
+            return (alpha << 24) | (gray << 16) | (gray << 8) | gray;
+        }
+
+        final float val = 1f - blackness;
+        return HsvColor.HSVToColor(alpha, slider, 1f - whiteness / val, val);
+    }
+
+    @Override
+    public void fromColor(int color, float[] components) {
+        HsvColor.RGBToHSV(color, components);
+        components[X] = 1f - (1f - components[X]) * components[Y];
+    }
+
+    @Override
+    public void clampToGamut(float[] components) {
+        // The grays past the diagonal are the same as on it, the tracker goes there.
+        final float whiteness = 1f - components[X];
+        final float blackness = 1f - components[Y];
+        final float total = whiteness + blackness;
+        if (total > 1f) {
+            components[X] = 1f - whiteness / total;
+            components[Y] = 1f - blackness / total;
+        }
+    }
+
+    @Override
+    public void rasterizeRow(float slider, float y, int[] pixels, int offset, int width) {
+        final float step = 1f / Math.max(1, width - 1);
+        for (int x = 0; x < width; x++) {
+            pixels[offset + x] = toColor(0xff, slider, x * step, y);
+        }
+    }
+
+    @Override
+    public int getSliderColor(float slider) {
+        return HsvColor.HSVToColor(0xff, slider, 1f, 1f);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * CIELab with the D65 white: lightness on the slider, from black at the bottom to white at the top,
+ * green to red across the plane and blue to yellow up it, each from -{@link #AB_RANGE} to {@link #AB_RANGE}.
+ * <p>
+ * A plane is rendered a row at a time, along a row only a changes so the other two
+ * XYZ components are worked out once per row. Out of the sRGB gamut is transparent.
+ */
+final class LabModel implements ColorModel {
+
+    /* The sRGB gamut reaches about -108 for b, the blues. */
+    static final float AB_RANGE = 110f;
+
+    private static final float DELTA = 6f / 29f;
+    private static final float WHITE_X = 0.95047f;
+    private static final float WHITE_Z = 1.08883f;
+
+    /* Precision of the search for the edge of the gamut. */
+    private static final int SEARCH_STEPS = 12;
+
+    @Override
+    public boolean isSliderCyclic() {
+        return false;
+    }
+
+    @Override
+    public int toColor(int alpha, float slider, float x, float y) {
+        final float fy = (toLightness(slider) + 16f) / 116f;
+        final float fx = fy + toAB(x) / 500f;
+        final float fz = fy - toAB(y) / 200f;
+        return xyzToColor(alpha, WHITE_X * finv(fx), finv(fy), WHITE_Z * finv(fz));
+    }
+
+    @Override
+    public void fromColor(int color, float[] components) {
+        final float r = SrgbTransfer.decode((color >> 16) & 0xff);
+        final float g = SrgbTransfer.decode((color >> 8) & 0xff);
+        final float b = SrgbTransfer.decode(color & 0xff);
+
+        final float fx = f((0.4124564f * r + 0.3575761f * g + 0.1804375f * b) / WHITE_X);
+        final float fy = f(0.2126729f * r + 0.7151522f * g + 0.0721750f * b);
+        final float fz = f((0.0193339f * r + 0.1191920f * g + 0.9503041f * b) / WHITE_Z);
+
+        components[SLIDER] = clamp((116f * fy - 16f) / 100f) * SLIDER_RANGE;
+        components[X] = clamp((500f * (fx - fy) / AB_RANGE + 1f) / 2f);
+        components[Y] = clamp((200f * (fy - fz) / AB_RANGE + 1f) / 2f);
+    }
+
+    @Override
+    public void clampToGamut(float[] components) {
+        final float fy = (toLightness(components[SLIDER]) + 16f) / 116f;
+        final float a = toAB(components[X]);
+        final float b = toAB(components[Y]);
+        if (isInGamut(fy, a, b)) {
+            return;
+        }
+
+        // Toward the gray of the same lightness until the color is in.
+        float low = 0f;
+        float high = 1f;
+        for (int i = 0; i < SEARCH_STEPS; i++) {
+            final float scale = (low + high) / 2f;
+            if (isInGamut(fy, a * scale, b * scale)) {
+                low = scale;
+            } else {
+                high = scale;
+            }
+        }
+        components[X] = (a * low / AB_RANGE + 1f) / 2f;
+        components[Y] = (b * low / AB_RANGE + 1f) / 2f;
+    }
+
+    @Override
+    public void rasterizeRow(float slider, float y, int[] pixels, int offset, int width) {
+        final float fy = (toLightness(slider) + 16f) / 116f;
+        final float yy = finv(fy);
+        final float zz = WHITE_Z * finv(fy - toAB(y) / 200f);
+        final float step = 1f / Math.max(1, width - 1);
+
+        for (int x = 0; x < width; x++) {
+            final float xx = WHITE_X * finv(fy + toAB(x * step) / 500f);
+            final float r = 3.2404542f * xx - 1.5371385f * yy - 0.4985314f * zz;
+            final float g = -0.9692660f * xx + 1.8760108f * yy + 0.0415560f * zz;
+            final float b = 0.0556434f * xx - 0.2040259f * yy + 1.0572252f * zz;
+            if (isRgbInGamut(r, g, b)) {
+                pixels[offset + x] = 0xff000000 | (SrgbTransfer.encode(r) << 16) | (SrgbTransfer.encode(g) << 8)
+                        | SrgbTransfer.encode(b);
+            } else {
+                pixels[offset + x] = 0;
+            }
+        }
+    }
+
+    @Override
+    public int getSliderColor(float slider) {
+        return toColor(0xff, slider, 0.5f, 0.5f);
+    }
+
+    private static boolean isInGamut(float fy, float a, float b) {
+        final float xx = WHITE_X * finv(fy + a / 500f);
+        final float yy = finv(fy);
+        final float zz = WHITE_Z * finv(fy - b / 200f);
+        return isRgbInGamut(3.2404542f * xx - 1.5371385f * yy - 0.4985314f * zz,
+                -0.9692660f * xx + 1.8760108f * yy + 0.0415560f * zz,
+                0.0556434f * xx - 0.2040259f * yy + 1.0572252f * zz);
+    }
+
+    private static boolean isRgbInGamut(float r, float g, float b) {
+        final float min = -0.0001f;
+        final float max = 1.0001f;
+        return r >= min && r <= max && g >= min && g <= max && b >= min && b <= max;
+    }
+
+    private static int xyzToColor(int alpha, float xx, float yy, float zz) {
+        final float r = 3.2404542f * xx - 1.5371385f * yy - 0.4985314f * zz;
+        final float g = -0.9692660f * xx + 1.8760108f * yy + 0.0415560f * zz;
+        final float b = 0.0556434f * xx - 0.2040259f * yy + 1.0572252f * zz;
+        return (alpha << 24) | (SrgbTransfer.encode(r) << 16) | (SrgbTransfer.encode(g) << 8) | SrgbTransfer.encode(b);
+    }
+
+    private static float toLightness(float slider) {
+        return clamp(slider / SLIDER_RANGE) * 100f;
+    }
+
+    private static float toAB(float position) {
+        return (position * 2f - 1f) * AB_RANGE;
+    }
+
+    private static float f(float t) {
+        return t > DELTA * DELTA * DELTA ? (float) Math.cbrt(t) : t / (3f * DELTA * DELTA) + 4f / 29f;
+    }
+
+    private static float finv(float t) {
+        return t > DELTA ? t * t * t : 3f * DELTA * DELTA * (t - 4f / 29f);
+    }
+
+    private static float clamp(float value) {
+        return value < 0f ? 0f : (value > 1f ? 1f : value);
+    }
+}
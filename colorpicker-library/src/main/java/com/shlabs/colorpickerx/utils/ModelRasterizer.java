@@ -0,0 +1,64 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * Renders the plane of any {@link ColorModel} row by row into an int buffer, pushed
+ * to the bitmap with a single {@link Bitmap#setPixels}. The slider position takes the place of the hue.
+ * <p>
+ * RGB_565 bitmaps get ordered dithering, what is out of the gamut is black there.
+ */
+public final class ModelRasterizer implements PlaneRasterizer {
+
+    private final ColorModel model;
+    private int[] pixels;
+
+    public ModelRasterizer(ColorModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public void render(Bitmap bitmap, float slider) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        final int size = width * height;
+        if (size <= 0) {
+            return;
+        }
+
+        if (pixels == null || pixels.length < size) {
+            pixels = new int[size];
+        }
+
+        final boolean dither = bitmap.getConfig() == Bitmap.Config.RGB_565;
+        final int last = Math.max(1, height - 1);
+        for (int y = 0; y < height; y++) {
+            final int offset = y * width;
+            model.rasterizeRow(slider, (float) (last - y) / last, pixels, offset, width);
+
+            if (dither) {
+                for (int x = 0; x < width; x++) {
+                    pixels[offset + x] = OrderedDither.toRgb565(pixels[offset + x], x, y);
+                }
+            }
+        }
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+    }
+}
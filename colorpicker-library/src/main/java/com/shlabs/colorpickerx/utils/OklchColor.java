@@ -0,0 +1,110 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * Conversions between packed colors and OKLCH components, the polar form of the OKLab perceptual
+ * color space: lightness 0 - 1, chroma from 0 up to about 0.32 for sRGB, and hue in degrees.
+ * <p>
+ * Not every combination is an sRGB color, see {@link OklchGamut} for where the gamut ends.
+ * The sRGB transfer function is applied through {@link SrgbTransfer}, so a conversion
+ * is a few multiplications and no pow.
+ */
+public final class OklchColor {
+
+    /* A chroma below this is a gray, it has no hue. */
+    private static final float GRAY_CHROMA = 0.0001f;
+
+    private OklchColor() {
+    }
+
+    /**
+     * Convert a packed ARGB color to OKLCH components without allocating, the alpha is ignored.
+     *
+     * @param color the color as #argb
+     * @param lch   filled with the lightness (0 - 1), chroma and hue (0 - 360).
+     *              A gray has no hue, the one in lch[2] is kept
+     */
+    public static void RGBToLCH(int color, float[] lch) {
+        final float r = SrgbTransfer.decode((color >> 16) & 0xff);
+        final float g = SrgbTransfer.decode((color >> 8) & 0xff);
+        final float b = SrgbTransfer.decode(color & 0xff);
+
+        final float l = (float) Math.cbrt(0.4122214708f * r + 0.5363325363f * g + 0.0514459929f * b);
+        final float m = (float) Math.cbrt(0.2119034982f * r + 0.6806995451f * g + 0.1073969566f * b);
+        final float s = (float) Math.cbrt(0.0883024619f * r + 0.2817188376f * g + 0.6299787005f * b);
+
+        final float lightness = 0.2104542553f * l + 0.7936177850f * m - 0.0040720468f * s;
+        final float labA = 1.9779984951f * l - 2.4285922050f * m + 0.4505937099f * s;
+        final float labB = 0.0259040371f * l + 0.7827717662f * m - 0.8086757660f * s;
+
+        final float chroma = (float) Math.sqrt(labA * labA + labB * labB);
+        if (chroma >= GRAY_CHROMA) {
+            float h = (float) Math.toDegrees(Math.atan2(labB, labA));
+            if (h < 0f) {
+                h += 360f;
+            }
+            lch[2] = h;
+        }
+        lch[0] = Math.max(0f, Math.min(1f, lightness));
+        lch[1] = chroma < GRAY_CHROMA ? 0f : chroma;
+    }
+
+    /**
+     * Convert OKLCH components to a packed ARGB color, channels out of the sRGB gamut are clipped.
+     *
+     * @param alpha     the alpha component, 0 - 255
+     * @param lightness the lightness, 0 - 1
+     * @param chroma    the chroma, 0 or more
+     * @param hue       the hue in degrees, 0 - 360
+     * @return the color as #argb
+     */
+    public static int LCHToColor(int alpha, float lightness, float chroma, float hue) {
+        final double h = Math.toRadians(hue);
+        final float a = chroma * (float) Math.cos(h);
+        final float b = chroma * (float) Math.sin(h);
+
+        final float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        final float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        final float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+
+        return lmsToColor(alpha, l * l * l, m * m * m, s * s * s);
+    }
+
+    /**
+     * Convert cubed LMS cone responses to a packed ARGB color, channels out of the sRGB gamut are clipped.
+     */
+    static int lmsToColor(int alpha, float l, float m, float s) {
+        final float r = 4.0767416621f * l - 3.3077115913f * m + 0.2309699292f * s;
+        final float g = -1.2684380046f * l + 2.6097574011f * m - 0.3413193965f * s;
+        final float b = -0.0041960863f * l - 0.7034186147f * m + 1.7076147010f * s;
+        return (alpha << 24) | (SrgbTransfer.encode(r) << 16) | (SrgbTransfer.encode(g) << 8) | SrgbTransfer.encode(b);
+    }
+
+    /**
+     * Check if the cubed LMS cone responses are an sRGB color.
+     */
+    static boolean isLmsInGamut(float l, float m, float s) {
+        final float r = 4.0767416621f * l - 3.3077115913f * m + 0.2309699292f * s;
+        final float g = -1.2684380046f * l + 2.6097574011f * m - 0.3413193965f * s;
+        final float b = -0.0041960863f * l - 0.7034186147f * m + 1.7076147010f * s;
+        final float min = -0.0001f;
+        final float max = 1.0001f;
+        return r >= min && r <= max && g >= min && g <= max && b >= min && b <= max;
+    }
+}
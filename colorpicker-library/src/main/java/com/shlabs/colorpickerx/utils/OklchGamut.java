@@ -0,0 +1,141 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * The edge of the sRGB gamut in OKLCH: for every hue the highest chroma each lightness
+ * can have and still be an sRGB color.
+ * <p>
+ * A table holds {@link #LIGHTNESS_STEPS} + 1 lightnesses for one degree of hue. It is found
+ * once with a binary search on the chroma the first time that hue is asked for and kept for
+ * the life of the process, the lookups in between are interpolated. Rendering an OKLCH plane
+ * then masks what is out of the gamut with one lookup per row instead of a check per pixel.
+ */
+public final class OklchGamut {
+
+    /* The widest sRGB chroma is a bit over 0.32, a purple. */
+    public static final float MAX_CHROMA = 0.33f;
+
+    public static final int HUE_STEPS = 360;
+    public static final int LIGHTNESS_STEPS = 256;
+
+    /* Precision of the binary search, well under a pixel of the widest panel. */
+    private static final int SEARCH_STEPS = 12;
+
+    private static final float[][] tables = new float[HUE_STEPS][];
+
+    private OklchGamut() {
+    }
+
+    /**
+     * Get the highest chroma in the sRGB gamut.
+     *
+     * @param hue       the hue in degrees
+     * @param lightness the lightness, 0 - 1
+     * @return the chroma, 0 - {@link #MAX_CHROMA}
+     */
+    public static float maxChroma(float hue, float lightness) {
+        final float h = wrap(hue);
+        final int hueStep = (int) h;
+        final float hueFraction = h - hueStep;
+
+        final float l = Math.max(0f, Math.min(1f, lightness)) * LIGHTNESS_STEPS;
+        final int lightnessStep = Math.min(LIGHTNESS_STEPS - 1, (int) l);
+        final float lightnessFraction = l - lightnessStep;
+
+        final float[] from = getTable(hueStep);
+        final float[] to = getTable((hueStep + 1) % HUE_STEPS);
+        final float fromChroma = from[lightnessStep] + (from[lightnessStep + 1] - from[lightnessStep]) * lightnessFraction;
+        final float toChroma = to[lightnessStep] + (to[lightnessStep + 1] - to[lightnessStep]) * lightnessFraction;
+        return fromChroma + (toChroma - fromChroma) * hueFraction;
+    }
+
+    /**
+     * Get the most colorful sRGB color of a hue, the one with the highest chroma at any lightness.
+     *
+     * @param hue the hue in degrees
+     * @return the color as #argb, opaque
+     */
+    public static int getCuspColor(float hue) {
+        final float[] table = getTable(Math.round(wrap(hue)) % HUE_STEPS);
+        int cusp = 0;
+        for (int i = 1; i <= LIGHTNESS_STEPS; i++) {
+            if (table[i] > table[cusp]) {
+                cusp = i;
+            }
+        }
+        return OklchColor.LCHToColor(0xff, (float) cusp / LIGHTNESS_STEPS, table[cusp], hue);
+    }
+
+    /**
+     * Check if a color is in the sRGB gamut, without the table.
+     *
+     * @param lightness the lightness, 0 - 1
+     * @param chroma    the chroma
+     * @param hue       the hue in degrees
+     */
+    public static boolean isInGamut(float lightness, float chroma, float hue) {
+        final double h = Math.toRadians(hue);
+        return isLabInGamut(lightness, chroma * (float) Math.cos(h), chroma * (float) Math.sin(h));
+    }
+
+    private static float wrap(float hue) {
+        final float h = hue % 360f;
+        return h < 0f ? h + 360f : h;
+    }
+
+    private static synchronized float[] getTable(int hueStep) {
+        float[] table = tables[hueStep];
+        if (table == null) {
+            table = computeTable(hueStep * 360f / HUE_STEPS);
+            tables[hueStep] = table;
+        }
+        return table;
+    }
+
+    private static float[] computeTable(float hue) {
+        final double h = Math.toRadians(hue);
+        final float cos = (float) Math.cos(h);
+        final float sin = (float) Math.sin(h);
+        final float[] table = new float[LIGHTNESS_STEPS + 1];
+
+        // Black and white have no chroma to give.
+        for (int i = 1; i < LIGHTNESS_STEPS; i++) {
+            final float lightness = (float) i / LIGHTNESS_STEPS;
+            float low = 0f;
+            float high = MAX_CHROMA;
+            for (int step = 0; step < SEARCH_STEPS; step++) {
+                final float chroma = (low + high) / 2f;
+                if (isLabInGamut(lightness, chroma * cos, chroma * sin)) {
+                    low = chroma;
+                } else {
+                    high = chroma;
+                }
+            }
+            table[i] = low;
+        }
+        return table;
+    }
+
+    private static boolean isLabInGamut(float lightness, float a, float b) {
+        final float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        final float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        final float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+        return OklchColor.isLmsInGamut(l * l * l, m * m * m, s * s * s);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import java.util.Arrays;
+
+/**
+ * OKLCH hue on the slider, chroma across the plane up to {@link OklchGamut#MAX_CHROMA}
+ * and lightness up it. What is out of the sRGB gamut is masked from the gamut tables,
+ * once per row, with the pixel on the edge partly covered.
+ */
+final class OklchModel implements ColorModel {
+
+    @Override
+    public boolean isSliderCyclic() {
+        return true;
+    }
+
+    @Override
+    public int toColor(int alpha, float slider, float x, float y) {
+        final float lightness = Math.max(0f, Math.min(1f, y));
+        float chroma = Math.max(0f, x) * OklchGamut.MAX_CHROMA;
+        // The table is interpolated, only use it for the colors that are really out.
+        if (!OklchGamut.isInGamut(lightness, chroma, slider)) {
+            chroma = Math.min(chroma, OklchGamut.maxChroma(slider, lightness));
+        }
+        return OklchColor.LCHToColor(alpha, lightness, chroma, slider);
+    }
+
+    @Override
+    public void fromColor(int color, float[] components) {
+        // Lightness, chroma and hue come back in the other order, the hue is kept for a gray.
+        components[2] = components[SLIDER];
+        OklchColor.RGBToLCH(color, components);
+        final float lightness = components[0];
+        final float chroma = components[1];
+        components[SLIDER] = components[2];
+        components[X] = Math.min(1f, chroma / OklchGamut.MAX_CHROMA);
+        components[Y] = lightness;
+    }
+
+    @Override
+    public void clampToGamut(float[] components) {
+        final float hue = components[SLIDER];
+        final float lightness = components[Y];
+        final float chroma = components[X] * OklchGamut.MAX_CHROMA;
+        final float maxChroma = OklchGamut.maxChroma(hue, lightness);
+        if (chroma > maxChroma && !OklchGamut.isInGamut(lightness, chroma, hue)) {
+            components[X] = maxChroma / OklchGamut.MAX_CHROMA;
+        }
+    }
+
+    @Override
+    public void rasterizeRow(float slider, float y, int[] pixels, int offset, int width) {
+        final double h = Math.toRadians(slider);
+        final float cos = (float) Math.cos(h);
+        final float sin = (float) Math.sin(h);
+
+        // Along a row only the chroma changes, each cone response is linear in it until it is cubed.
+        final float kl = 0.3963377774f * cos + 0.2158037573f * sin;
+        final float km = -0.1055613458f * cos - 0.0638541728f * sin;
+        final float ks = -0.0894841775f * cos - 1.2914855480f * sin;
+
+        final float chromaStep = OklchGamut.MAX_CHROMA / Math.max(1, width - 1);
+        final float maxChroma = OklchGamut.maxChroma(slider, y);
+
+        for (int x = 0; x < width; x++) {
+            final float chroma = x * chromaStep;
+            final float coverage = (maxChroma - chroma) / chromaStep + 0.5f;
+            if (coverage <= 0f) {
+                // The gamut only gets narrower from here, the rest of the row is out.
+                Arrays.fill(pixels, offset + x, offset + width, 0);
+                return;
+            }
+
+            final float c = Math.min(chroma, maxChroma);
+            final float l = y + c * kl;
+            final float m = y + c * km;
+            final float s = y + c * ks;
+            final int alpha = coverage >= 1f ? 0xff : Math.round(coverage * 0xff);
+            pixels[offset + x] = OklchColor.lmsToColor(alpha, l * l * l, m * m * m, s * s * s);
+        }
+    }
+
+    @Override
+    public int getSliderColor(float slider) {
+        return OklchGamut.getCuspColor(slider);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * 4x4 ordered dithering for colors going into RGB_565 bitmaps.
+ * <p>
+ * The color is quantized here and expanded back to 8 bits per channel, so whatever rounding
+ * the conversion to 565 does the pixel keeps the level picked by the threshold matrix.
+ */
+public final class OrderedDither {
+
+    private static final int[] BAYER = {
+            0, 8, 2, 10,
+            12, 4, 14, 6,
+            3, 11, 1, 9,
+            15, 7, 13, 5
+    };
+
+    private OrderedDither() {
+    }
+
+    /**
+     * Dither an opaque color for the pixel at x, y.
+     *
+     * @return the color with each channel on a level RGB_565 can hold
+     */
+    public static int toRgb565(int color, int x, int y) {
+        final int threshold = BAYER[((y & 3) << 2) | (x & 3)];
+
+        // Offset in the middle of the threshold's 1/16th of a level, levels being 255 wide once
+        // the channel is scaled by the number of levels. Never carries the top value over the last level.
+        final int offset = ((threshold << 1) + 1) * 255 >> 5;
+
+        final int r = (((color >> 16) & 0xff) * 31 + offset) / 255;
+        final int g = (((color >> 8) & 0xff) * 63 + offset) / 255;
+        final int b = ((color & 0xff) * 31 + offset) / 255;
+
+        return 0xff000000 | (((r << 3) | (r >> 2)) << 16) | (((g << 2) | (g >> 4)) << 8) | ((b << 3) | (b >> 2));
+    }
+}
@@ -0,0 +1,14 @@
+package com.shlabs.colorpickerx.utils
+
+import androidx.annotation.IntDef
+
+@IntDef(PickerColorSpace.HSV, PickerColorSpace.OKLCH, PickerColorSpace.HSL, PickerColorSpace.HWB, PickerColorSpace.LAB)
+annotation class PickerColorSpace {
+    companion object {
+        const val HSV = 0
+        const val OKLCH = 1
+        const val HSL = 2
+        const val HWB = 3
+        const val LAB = 4
+    }
+}
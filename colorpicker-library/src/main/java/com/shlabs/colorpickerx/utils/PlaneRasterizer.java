@@ -0,0 +1,36 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * Renders the big panel of a picker for one hue, the saturation / value plane of HSV
+ * or the plane of another {@link ColorModel} for one position of its slider.
+ * An instance keeps its buffers between calls and is used by one thread at a time.
+ */
+public interface PlaneRasterizer {
+
+    /**
+     * Render the plane for the given hue into the bitmap.
+     *
+     * @param bitmap a mutable bitmap, the whole bitmap will be written, dithered if it is RGB_565
+     * @param hue    the hue in degrees, or the slider position from 0 to {@link ColorModel#SLIDER_RANGE}
+     */
+    void render(Bitmap bitmap, float hue);
+}
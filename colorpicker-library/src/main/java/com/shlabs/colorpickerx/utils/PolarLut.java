@@ -0,0 +1,104 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * The angle and the distance to the center of every pixel of a disc, computed once
+ * for a diameter so a wheel can be filled with table lookups instead of an atan2
+ * and a square root per pixel every time it is rendered.
+ * <p>
+ * Each entry packs the angle in the low 16 bits, in {@link #ANGLE_STEPS} of a turn counter clockwise
+ * from the right, the radius in the next 8 bits, 0 at the center and 255 on the edge, and in the high
+ * byte how much of the pixel the disc covers. Pixels outside the disc are 0.
+ * <p>
+ * Tables are shared, see {@link SharedRenderCache}, and must not be modified.
+ */
+public final class PolarLut {
+
+    public static final int ANGLE_STEPS = 4096;
+
+    private final int diameter;
+    private final int[] entries;
+
+    private PolarLut(int diameter, int[] entries) {
+        this.diameter = diameter;
+        this.entries = entries;
+    }
+
+    /**
+     * Compute the table for a disc of the given diameter.
+     *
+     * @param diameter the diameter in pixels
+     */
+    public static PolarLut create(int diameter) {
+        final int size = Math.max(1, diameter);
+        final int[] entries = new int[size * size];
+        final float radius = size / 2f;
+        final int half = (size + 1) / 2;
+
+        // Only the top left quadrant is computed, the others are mirrored from it.
+        for (int y = 0; y < half; y++) {
+            final float dy = radius - (y + 0.5f);
+            for (int x = 0; x < half; x++) {
+                final float dx = radius - (x + 0.5f);
+                final float distance = (float) Math.sqrt(dx * dx + dy * dy);
+                // Anti aliased edge, the disc covers the pixel by how far its center is inside.
+                final float coverage = Math.min(1f, radius - distance + 0.5f);
+                if (coverage <= 0f) {
+                    continue;
+                }
+
+                final int r = Math.min(255, Math.round(distance / radius * 255f));
+                final int a = Math.round(coverage * 255f) << 24 | r << 16;
+                // Angle of the top left pixel, between a quarter and half a turn.
+                final int angle = Math.round((float) (Math.atan2(dy, -dx) / (2 * Math.PI)) * ANGLE_STEPS);
+
+                final int mirrorX = size - 1 - x;
+                final int mirrorY = size - 1 - y;
+                entries[y * size + x] = a | angle;
+                entries[y * size + mirrorX] = a | ((ANGLE_STEPS / 2 - angle) & (ANGLE_STEPS - 1));
+                entries[mirrorY * size + x] = a | ((ANGLE_STEPS - angle) & (ANGLE_STEPS - 1));
+                entries[mirrorY * size + mirrorX] = a | ((angle + ANGLE_STEPS / 2) & (ANGLE_STEPS - 1));
+            }
+        }
+        return new PolarLut(size, entries);
+    }
+
+    public int getDiameter() {
+        return diameter;
+    }
+
+    /**
+     * The packed entries, row after row, {@link #getDiameter()} by {@link #getDiameter()}.
+     */
+    public int[] getEntries() {
+        return entries;
+    }
+
+    public static int getAngle(int entry) {
+        return entry & 0xffff;
+    }
+
+    public static int getRadius(int entry) {
+        return (entry >> 16) & 0xff;
+    }
+
+    public static int getCoverage(int entry) {
+        return entry >>> 24;
+    }
+}
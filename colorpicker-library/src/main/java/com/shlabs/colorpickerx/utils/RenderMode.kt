@@ -0,0 +1,12 @@
+package com.shlabs.colorpickerx.utils
+
+import androidx.annotation.IntDef
+
+@IntDef(RenderMode.SHADER, RenderMode.RASTER, RenderMode.LAYERED)
+annotation class RenderMode {
+    companion object {
+        const val SHADER = 0
+        const val RASTER = 1
+        const val LAYERED = 2
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+import android.os.Process;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Least recently used cache of saturation / value bitmaps, keyed by the quantized hue
+ * and the size of the panel, bounded by a budget in bytes. A cache holds the planes
+ * of one {@link ColorModel}, keyed by the slider position in place of the hue for other models.
+ * <p>
+ * While the hue is dragged the next hues in the direction of the drag are rendered
+ * ahead of time on a background thread, the faster the drag the further ahead.
+ * Evicted bitmaps are handed to the {@link BitmapPool}, new ones are taken from it.
+ * <p>
+ * A cache can be shared by several pickers, see {@link SharedRenderCache}.
+ */
+public final class SatValBitmapCache {
+
+    /* Default hue step, one degree can't be told apart on the panel. */
+    public static final float DEFAULT_HUE_STEP = 1f;
+
+    /* How far ahead of the drag we render, in milliseconds. */
+    private static final long PREFETCH_LOOKAHEAD_MS = 100;
+    private static final int MAX_PREFETCH_STEPS = 8;
+
+    private static ExecutorService prefetchExecutor;
+
+    private final LinkedHashMap<Long, Bitmap> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<Long> pending = new HashSet<>();
+    private final PlaneRasterizer prefetchRasterizer;
+    private final BitmapPool bitmapPool;
+
+    private final float hueStep;
+    private final int hueSteps;
+    private final Bitmap.Config config;
+    private final ColorModel model;
+    private long maxBytes;
+    private long bytes;
+
+    /* The bitmaps on screen and how many pickers show them, never evicted by the budget. */
+    private final HashMap<Bitmap, Integer> pinned = new HashMap<>();
+
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+    private int prefetchCount;
+
+    /* Bumped when the drag turns around or stops so queued requests that are no longer wanted are dropped. */
+    private volatile int prefetchGeneration;
+    private int prefetchDirection;
+
+    /**
+     * @param maxBytes the budget of all the cached bitmaps together
+     * @param hueStep  the hues are rounded to a multiple of this many degrees
+     * @param pool     where evicted bitmaps go and new ones come from
+     * @param config   config of the bitmaps, ARGB_8888 or RGB_565
+     * @param model    the color model of the planes
+     */
+    public SatValBitmapCache(long maxBytes, float hueStep, BitmapPool pool, Bitmap.Config config,
+            ColorModel model) {
+        this.maxBytes = maxBytes;
+        this.bitmapPool = pool;
+        this.config = config;
+        this.model = model;
+        this.prefetchRasterizer = newRasterizer();
+        this.hueStep = hueStep;
+        this.hueSteps = Math.max(1, Math.round(360f / hueStep));
+    }
+
+    /**
+     * Default budget, a small part of the heap but no more than 16MB.
+     */
+    public static long defaultMaxBytes() {
+        return Math.min(Runtime.getRuntime().maxMemory() / 16, 16L * 1024 * 1024);
+    }
+
+    /**
+     * The hue the bitmap for the given hue is rendered with.
+     *
+     * @param hue the hue in degrees
+     * @return the quantized hue in degrees
+     */
+    public float quantize(float hue) {
+        return quantizedStep(hue) * hueStep;
+    }
+
+    private int quantizedStep(float hue) {
+        final int step = Math.round(hue / hueStep);
+        if (!model.isSliderCyclic()) {
+            // Both ends of the slider are different planes.
+            return Math.max(0, Math.min(hueSteps, step));
+        }
+        return step >= hueSteps ? step % hueSteps : step;
+    }
+
+    private static long key(int step, int width, int height) {
+        return ((long) step << 32) | ((long) (width & 0xffff) << 16) | (height & 0xffff);
+    }
+
+    /**
+     * Get the bitmap for the hue, counted as a hit or a miss.
+     *
+     * @return the bitmap or null if it has not been rendered yet
+     */
+    public synchronized Bitmap get(float hue, int width, int height) {
+        Bitmap bitmap = entries.get(key(quantizedStep(hue), width, height));
+        if (bitmap != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Add the bitmap rendered for {@link #quantize(float) quantize(hue)}, evicting the
+     * least recently used bitmaps if the budget is exceeded.
+     * <p>
+     * If another picker has already added the same hue and size its bitmap is kept
+     * and the given one goes back to the pool.
+     *
+     * @return the bitmap in the cache, the one to show
+     */
+    public synchronized Bitmap put(float hue, Bitmap bitmap) {
+        return put(key(quantizedStep(hue), bitmap.getWidth(), bitmap.getHeight()), bitmap);
+    }
+
+    private synchronized Bitmap put(long key, Bitmap bitmap) {
+        final Bitmap existing = entries.get(key);
+        if (existing != null && existing != bitmap) {
+            bitmapPool.release(bitmap);
+            return existing;
+        }
+
+        if (existing == null) {
+            entries.put(key, bitmap);
+            bytes += BitmapPool.getBytes(bitmap);
+            trimToSize(maxBytes);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Mark a bitmap that is on screen, it will not be evicted to stay within the budget
+     * until every {@link #pin(Bitmap)} has been matched by an {@link #unpin(Bitmap)}.
+     */
+    public synchronized void pin(Bitmap bitmap) {
+        final Integer count = pinned.get(bitmap);
+        pinned.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * The bitmap is no longer on screen for one of the pickers.
+     */
+    public synchronized void unpin(Bitmap bitmap) {
+        final Integer count = pinned.get(bitmap);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            pinned.put(bitmap, count - 1);
+        } else {
+            pinned.remove(bitmap);
+            trimToSize(maxBytes);
+        }
+    }
+
+    /**
+     * Get a new rasterizer for the planes of this cache.
+     */
+    public PlaneRasterizer newRasterizer() {
+        return model == ColorModels.HSV ? new SatValRasterizer() : new ModelRasterizer(model);
+    }
+
+    /**
+     * Get a bitmap to render a missing hue into.
+     */
+    public Bitmap obtain(int width, int height) {
+        return bitmapPool.obtain(width, height, config);
+    }
+
+    /**
+     * Give back a bitmap from {@link #obtain(int, int)} that has not been put in the cache.
+     */
+    public void release(Bitmap bitmap) {
+        bitmapPool.release(bitmap);
+    }
+
+    private synchronized boolean contains(long key) {
+        return entries.containsKey(key);
+    }
+
+    private void trimToSize(long size) {
+        Iterator<Map.Entry<Long, Bitmap>> iterator = entries.entrySet().iterator();
+        while (bytes > size && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next().getValue();
+            if (pinned.containsKey(bitmap)) {
+                continue;
+            }
+            iterator.remove();
+            bytes -= BitmapPool.getBytes(bitmap);
+            bitmapPool.release(bitmap);
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Render the hues ahead of a hue drag in the background.
+     *
+     * @param hue      the current hue
+     * @param velocity the speed of the drag in degrees per second, the sign is the direction
+     * @param width    width of the panel
+     * @param height   height of the panel
+     */
+    public void prefetch(float hue, float velocity, int width, int height) {
+        if (velocity == 0f || width <= 0 || height <= 0) {
+            return;
+        }
+
+        final int direction = velocity > 0f ? 1 : -1;
+        if (direction != prefetchDirection) {
+            cancelPrefetch();
+            prefetchDirection = direction;
+        }
+        final int generation = prefetchGeneration;
+        final float ahead = Math.abs(velocity) * PREFETCH_LOOKAHEAD_MS / 1000f;
+        final int steps = Math.max(1, Math.min(MAX_PREFETCH_STEPS, Math.round(ahead / hueStep)));
+        final int start = quantizedStep(hue);
+
+        for (int i = 1; i <= steps; i++) {
+            final int next = start + direction * i;
+            if (!model.isSliderCyclic() && (next < 0 || next > hueSteps)) {
+                // Past the end of the slider, nothing to render.
+                break;
+            }
+            final int step = model.isSliderCyclic() ? (next % hueSteps + hueSteps) % hueSteps : next;
+            final long key = key(step, width, height);
+            synchronized (this) {
+                if (entries.containsKey(key) || !pending.add(key)) {
+                    continue;
+                }
+            }
+            getPrefetchExecutor().execute(() -> {
+                try {
+                    if (generation == prefetchGeneration && !contains(key)) {
+                        Bitmap bitmap = obtain(width, height);
+                        prefetchRasterizer.render(bitmap, step * hueStep);
+                        put(key, bitmap);
+                        synchronized (this) {
+                            prefetchCount++;
+                        }
+                    }
+                } finally {
+                    synchronized (this) {
+                        pending.remove(key);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop the queued prefetches that have not started yet.
+     */
+    public void cancelPrefetch() {
+        prefetchGeneration++;
+        prefetchDirection = 0;
+    }
+
+    /**
+     * Move all the bitmaps to the pool, including the ones on screen.
+     */
+    public synchronized void evictAll() {
+        cancelPrefetch();
+        for (Bitmap bitmap : entries.values()) {
+            bitmapPool.release(bitmap);
+        }
+        entries.clear();
+        pinned.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Drop all the bitmaps, pooled ones included, once no picker uses the cache anymore.
+     */
+    public synchronized void close() {
+        evictAll();
+        bitmapPool.clear();
+    }
+
+    public Bitmap.Config getConfig() {
+        return config;
+    }
+
+    public ColorModel getColorModel() {
+        return model;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized int getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final int accesses = hitCount + missCount;
+        final int hitPercent = accesses != 0 ? (100 * hitCount / accesses) : 0;
+        return "SatValBitmapCache[bytes=" + bytes + ",maxBytes=" + maxBytes + ",hits=" + hitCount
+                + ",misses=" + missCount + ",hitRate=" + hitPercent + "%,evictions=" + evictionCount
+                + ",prefetched=" + prefetchCount + "]";
+    }
+
+    private static synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "SatValPrefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return prefetchExecutor;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * The two hue independent layers of the saturation / value field, drawn over a rect filled with the hue:
+ * white fading out from left to right for the saturation, then black fading in from top to bottom for the value.
+ * <p>
+ * Each layer only changes along one axis, so it is a strip one pixel thick stretched over the panel.
+ * They have per pixel alpha and are always ARGB_8888.
+ */
+public final class SatValOverlay {
+
+    private SatValOverlay() {
+    }
+
+    /**
+     * Render the saturation layer, opaque white on the left to transparent on the right.
+     *
+     * @param width width of the panel
+     * @return a bitmap width pixels wide and 1 pixel high
+     */
+    public static Bitmap createWhite(int width) {
+        final int[] pixels = new int[width];
+        final int last = Math.max(1, width - 1);
+        for (int x = 0; x < width; x++) {
+            final int alpha = (255 * (last - x) + (last >> 1)) / last;
+            pixels[x] = (alpha << 24) | 0xffffff;
+        }
+
+        final Bitmap bitmap = Bitmap.createBitmap(width, 1, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, 1);
+        return bitmap;
+    }
+
+    /**
+     * Render the value layer, transparent at the top to opaque black at the bottom.
+     *
+     * @param height height of the panel
+     * @return a bitmap 1 pixel wide and height pixels high
+     */
+    public static Bitmap createBlack(int height) {
+        final int[] pixels = new int[height];
+        final int last = Math.max(1, height - 1);
+        for (int y = 0; y < height; y++) {
+            final int alpha = (255 * y + (last >> 1)) / last;
+            pixels[y] = alpha << 24;
+        }
+
+        final Bitmap bitmap = Bitmap.createBitmap(1, height, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pixels, 0, 1, 0, 0, 1, height);
+        return bitmap;
+    }
+}
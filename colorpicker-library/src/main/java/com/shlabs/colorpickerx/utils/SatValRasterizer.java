@@ -0,0 +1,173 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders the saturation / value field of a hue straight into an int buffer,
+ * the same result as the white to hue gradient multiplied by the white to black gradient.
+ * <p>
+ * The first row holds the white to hue gradient at full value, every other row is that row
+ * scaled by its value. Big panels are split in bands of rows which are rendered on a fork join pool,
+ * the whole buffer is then pushed to the bitmap with a single {@link Bitmap#setPixels}.
+ * <p>
+ * RGB_565 bitmaps get ordered dithering so the gradients don't band.
+ */
+public final class SatValRasterizer implements PlaneRasterizer {
+
+    /* Bands smaller than this are not worth handing to another thread. */
+    private static final int MIN_ROWS_PER_BAND = 64;
+
+    private static ForkJoinPool pool;
+
+    private int[] pixels;
+
+    /**
+     * Render the saturation / value field for the given hue into the bitmap.
+     *
+     * @param bitmap a mutable bitmap, the whole bitmap will be written, dithered if it is RGB_565
+     * @param hue    the hue in degrees
+     */
+    @Override
+    public void render(Bitmap bitmap, float hue) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        final int size = width * height;
+        if (size <= 0) {
+            return;
+        }
+
+        if (pixels == null || pixels.length < size) {
+            pixels = new int[size];
+        }
+
+        final boolean dither = bitmap.getConfig() == Bitmap.Config.RGB_565;
+        rasterize(pixels, width, height, HsvColor.HSVToColor(0xff, hue, 1f, 1f), dither);
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+    }
+
+    /**
+     * Fill the buffer with the saturation / value field of the given fully saturated color.
+     *
+     * @param pixels   the destination, at least width * height long
+     * @param width    width of the field
+     * @param height   height of the field
+     * @param hueColor the color at full saturation and value
+     * @param dither   dither the pixels for an RGB_565 bitmap
+     */
+    public static void rasterize(int[] pixels, int width, int height, int hueColor, boolean dither) {
+        rasterizeTopRow(pixels, width, hueColor);
+
+        if (height > MIN_ROWS_PER_BAND && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                && Runtime.getRuntime().availableProcessors() > 1) {
+            getPool().invoke(new RowBand(pixels, width, height, 1, height, dither));
+        } else {
+            rasterizeRows(pixels, width, height, 1, height, dither);
+        }
+
+        // The other rows are scaled from the top row, it can only be dithered last.
+        if (dither) {
+            for (int x = 0; x < width; x++) {
+                pixels[x] = OrderedDither.toRgb565(pixels[x], x, 0);
+            }
+        }
+    }
+
+    /*
+     * Row 0 is at full value, it goes from white on the left to the hue color on the right.
+     */
+    private static void rasterizeTopRow(int[] pixels, int width, int hueColor) {
+        final int r = (hueColor >> 16) & 0xff;
+        final int g = (hueColor >> 8) & 0xff;
+        final int b = hueColor & 0xff;
+        final int last = Math.max(1, width - 1);
+
+        for (int x = 0; x < width; x++) {
+            final int white = 255 * (last - x) + (last >> 1);
+            final int cr = (white + r * x) / last;
+            final int cg = (white + g * x) / last;
+            final int cb = (white + b * x) / last;
+            pixels[x] = 0xff000000 | (cr << 16) | (cg << 8) | cb;
+        }
+    }
+
+    /*
+     * Scale the top row by the value of each row, from 1 at the top to 0 at the bottom.
+     */
+    static void rasterizeRows(int[] pixels, int width, int height, int fromRow, int toRow, boolean dither) {
+        final int last = Math.max(1, height - 1);
+
+        for (int y = fromRow; y < toRow; y++) {
+            // Value in 16.16 fixed point.
+            final int v = (int) (((long) (last - y) << 16) / last);
+            final int offset = y * width;
+
+            for (int x = 0; x < width; x++) {
+                final int c = pixels[x];
+                final int r = (((c >> 16) & 0xff) * v + 0x8000) >> 16;
+                final int g = (((c >> 8) & 0xff) * v + 0x8000) >> 16;
+                final int b = ((c & 0xff) * v + 0x8000) >> 16;
+                final int color = 0xff000000 | (r << 16) | (g << 8) | b;
+                pixels[offset + x] = dither ? OrderedDither.toRgb565(color, x, y) : color;
+            }
+        }
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    private static final class RowBand extends RecursiveAction {
+
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final int fromRow;
+        private final int toRow;
+        private final boolean dither;
+
+        RowBand(int[] pixels, int width, int height, int fromRow, int toRow, boolean dither) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.dither = dither;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= MIN_ROWS_PER_BAND) {
+                rasterizeRows(pixels, width, height, fromRow, toRow, dither);
+                return;
+            }
+
+            final int middle = (fromRow + toRow) >>> 1;
+            invokeAll(new RowBand(pixels, width, height, fromRow, middle, dither),
+                    new RowBand(pixels, width, height, middle, toRow, dither));
+        }
+    }
+}
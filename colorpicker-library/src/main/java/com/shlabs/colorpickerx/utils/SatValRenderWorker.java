@@ -0,0 +1,148 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+/**
+ * Renders saturation / value bitmaps on a dedicated thread so hue changes don't block the frame.
+ * <p>
+ * There is only room for one waiting request, a newer hue replaces the one that has not been started yet.
+ * Every bitmap is rendered into a new buffer taken from the pool of the cache it was requested for,
+ * the one on screen is never written to. The finished bitmap is posted back to the main thread, unless it has been cancelled.
+ */
+public final class SatValRenderWorker {
+
+    public interface Callback {
+
+        /**
+         * Called on the main thread with the bitmap rendered for the hue.
+         */
+        void onSatValRendered(float hue, Bitmap bitmap);
+    }
+
+    private static Handler workerHandler;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    /* Only touched on the worker thread, replaced when a request comes for another color model. */
+    private PlaneRasterizer rasterizer;
+    private ColorModel rasterizerModel;
+    private final Runnable renderRunnable = this::renderRequests;
+    private final Callback callback;
+
+    private boolean requested;
+    private SatValBitmapCache requestCache;
+    private float requestHue;
+    private int requestWidth;
+    private int requestHeight;
+    private boolean scheduled;
+    private int generation;
+
+    public SatValRenderWorker(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Render the hue in the background, replacing the waiting request if there is one.
+     *
+     * @param cache  where the bitmap comes from
+     * @param hue    the hue to render, already quantized
+     * @param width  width of the panel
+     * @param height height of the panel
+     */
+    public synchronized void request(SatValBitmapCache cache, float hue, int width, int height) {
+        requested = true;
+        requestCache = cache;
+        requestHue = hue;
+        requestWidth = width;
+        requestHeight = height;
+
+        if (!scheduled) {
+            scheduled = true;
+            getWorkerHandler().post(renderRunnable);
+        }
+    }
+
+    /**
+     * Drop the waiting request and the results that have not been delivered yet.
+     */
+    public synchronized void cancel() {
+        requested = false;
+        requestCache = null;
+        generation++;
+    }
+
+    private void renderRequests() {
+        while (true) {
+            final SatValBitmapCache cache;
+            final float hue;
+            final int width;
+            final int height;
+            final int requestGeneration;
+            synchronized (this) {
+                if (!requested) {
+                    scheduled = false;
+                    return;
+                }
+                requested = false;
+                cache = requestCache;
+                requestCache = null;
+                hue = requestHue;
+                width = requestWidth;
+                height = requestHeight;
+                requestGeneration = generation;
+            }
+
+            if (rasterizer == null || rasterizerModel != cache.getColorModel()) {
+                rasterizer = cache.newRasterizer();
+                rasterizerModel = cache.getColorModel();
+            }
+            final Bitmap bitmap = cache.obtain(width, height);
+            rasterizer.render(bitmap, hue);
+
+            mainHandler.post(() -> deliver(requestGeneration, cache, hue, bitmap));
+        }
+    }
+
+    private void deliver(int requestGeneration, SatValBitmapCache cache, float hue, Bitmap bitmap) {
+        final boolean cancelled;
+        synchronized (this) {
+            cancelled = requestGeneration != generation;
+        }
+
+        if (cancelled) {
+            cache.release(bitmap);
+        } else {
+            callback.onSatValRendered(hue, bitmap);
+        }
+    }
+
+    private static synchronized Handler getWorkerHandler() {
+        if (workerHandler == null) {
+            // Below the UI and render threads it relieves, but above the prefetch as the panel waits for it.
+            HandlerThread thread = new HandlerThread("SatValRender", Process.THREAD_PRIORITY_DEFAULT);
+            thread.start();
+            workerHandler = new Handler(thread.getLooper());
+        }
+        return workerHandler;
+    }
+}
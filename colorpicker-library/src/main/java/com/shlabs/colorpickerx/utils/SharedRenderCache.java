@@ -0,0 +1,231 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+import android.graphics.Bitmap;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Process wide render cache shared by all the pickers: the saturation / value bitmap caches,
+ * the saturation / value overlays, the hue strips, the alpha patterns and the color wheels.
+ * Pickers of the same size and config end up with the very same bitmaps, so N identical
+ * pickers cost about as much memory as one.
+ * <p>
+ * Everything is reference counted, every acquire must be matched by a release.
+ * An entry is dropped once the last picker using it releases it.
+ */
+public final class SharedRenderCache {
+
+    private static final RefCounted<SatValBitmapCache> satValCaches = new RefCounted<>();
+    private static final RefCounted<Bitmap> satValOverlays = new RefCounted<>();
+    private static final RefCounted<Bitmap> hueStrips = new RefCounted<>();
+    private static final RefCounted<Bitmap> alphaPatterns = new RefCounted<>();
+    private static final RefCounted<PolarLut> polarLuts = new RefCounted<>();
+    private static final RefCounted<Bitmap> hueSatWheels = new RefCounted<>();
+    /* The table each wheel holds, released with the last user of the wheel. */
+    private static final IdentityHashMap<Bitmap, PolarLut> wheelLuts = new IdentityHashMap<>();
+    /* Models have no natural key, each one gets a number the first time it is seen. */
+    private static final IdentityHashMap<ColorModel, Integer> modelIds = new IdentityHashMap<>();
+
+    /* Bitmaps each cache keeps around to reuse for the hues that are missing. */
+    private static final int POOL_SIZE = 4;
+
+    private SharedRenderCache() {
+    }
+
+    /**
+     * Get the saturation / value cache for the given config and color model, the hue and size are part of its keys.
+     */
+    public static synchronized SatValBitmapCache acquireSatValCache(Bitmap.Config config, ColorModel model) {
+        final long key = ((long) getModelId(model) << 32) | config.ordinal();
+        SatValBitmapCache cache = satValCaches.acquire(key);
+        if (cache == null) {
+            cache = new SatValBitmapCache(SatValBitmapCache.defaultMaxBytes(), SatValBitmapCache.DEFAULT_HUE_STEP,
+                    new BitmapPool(POOL_SIZE), config, model);
+            satValCaches.add(key, cache);
+        }
+        return cache;
+    }
+
+    public static synchronized void releaseSatValCache(SatValBitmapCache cache) {
+        if (satValCaches.release(cache)) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Get one of the layers of the saturation / value field, see {@link SatValOverlay}.
+     * The bitmap is shared and must not be modified.
+     *
+     * @param length width of the panel for the white layer, height for the black one
+     * @param black  the value layer instead of the saturation one
+     */
+    public static synchronized Bitmap acquireSatValOverlay(int length, boolean black) {
+        final long key = ((black ? 1L : 0L) << 32) | (length & 0xffffffffL);
+        Bitmap overlay = satValOverlays.acquire(key);
+        if (overlay == null) {
+            overlay = black ? SatValOverlay.createBlack(length) : SatValOverlay.createWhite(length);
+            satValOverlays.add(key, overlay);
+        }
+        return overlay;
+    }
+
+    public static synchronized void releaseSatValOverlay(Bitmap overlay) {
+        satValOverlays.release(overlay);
+    }
+
+    /**
+     * Get the hue strip for a hue panel of the given height, see {@link HueStrip}.
+     * The bitmap is shared and must not be modified.
+     */
+    public static synchronized Bitmap acquireHueStrip(int height, Bitmap.Config config, ColorModel model) {
+        final long key = ((long) getModelId(model) << 40) | ((long) config.ordinal() << 32) | (height & 0xffffffffL);
+        Bitmap strip = hueStrips.acquire(key);
+        if (strip == null) {
+            strip = HueStrip.create(height, config, model);
+            hueStrips.add(key, strip);
+        }
+        return strip;
+    }
+
+    public static synchronized void releaseHueStrip(Bitmap strip) {
+        hueStrips.release(strip);
+    }
+
+    /**
+     * Get the alpha checkerboard of the given size, see {@link AlphaPatternDrawable}.
+     * The bitmap is shared and must not be modified.
+     */
+    public static synchronized Bitmap acquireAlphaPattern(int width, int height, int rectangleSize,
+            Bitmap.Config config) {
+        final long key = ((long) config.ordinal() << 48) | ((long) (rectangleSize & 0xffff) << 32)
+                | ((long) (width & 0xffff) << 16) | (height & 0xffff);
+        Bitmap pattern = alphaPatterns.acquire(key);
+        if (pattern == null) {
+            pattern = AlphaPatternDrawable.createPattern(width, height, rectangleSize, config);
+            alphaPatterns.add(key, pattern);
+        }
+        return pattern;
+    }
+
+    public static synchronized void releaseAlphaPattern(Bitmap pattern) {
+        alphaPatterns.release(pattern);
+    }
+
+    /**
+     * Get the polar lookup table of a disc of the given diameter, see {@link PolarLut}.
+     * The table is shared and must not be modified.
+     */
+    public static synchronized PolarLut acquirePolarLut(int diameter) {
+        final long key = diameter;
+        PolarLut lut = polarLuts.acquire(key);
+        if (lut == null) {
+            lut = PolarLut.create(diameter);
+            polarLuts.add(key, lut);
+        }
+        return lut;
+    }
+
+    public static synchronized void releasePolarLut(PolarLut lut) {
+        polarLuts.release(lut);
+    }
+
+    /**
+     * Get the hue / saturation wheel of the given diameter, see {@link HueSatWheel}.
+     * The bitmap is shared and must not be modified.
+     */
+    public static synchronized Bitmap acquireHueSatWheel(int diameter) {
+        final long key = diameter;
+        Bitmap wheel = hueSatWheels.acquire(key);
+        if (wheel == null) {
+            // The table stays cached for as long as a wheel of its size is alive.
+            final PolarLut lut = acquirePolarLut(diameter);
+            wheel = HueSatWheel.create(lut);
+            hueSatWheels.add(key, wheel);
+            wheelLuts.put(wheel, lut);
+        }
+        return wheel;
+    }
+
+    public static synchronized void releaseHueSatWheel(Bitmap wheel) {
+        if (hueSatWheels.release(wheel)) {
+            final PolarLut lut = wheelLuts.remove(wheel);
+            if (lut != null) {
+                releasePolarLut(lut);
+            }
+        }
+    }
+
+    /*
+     * Models are meant to be long lived like the ones in ColorModels, their ids are kept for good.
+     */
+    private static int getModelId(ColorModel model) {
+        Integer id = modelIds.get(model);
+        if (id == null) {
+            id = modelIds.size();
+            modelIds.put(model, id);
+        }
+        return id;
+    }
+
+    /*
+     * Values by key with the number of users of each.
+     */
+    private static final class RefCounted<V> {
+
+        private final HashMap<Long, V> values = new HashMap<>();
+        private final IdentityHashMap<V, Long> keys = new IdentityHashMap<>();
+        private final IdentityHashMap<V, Integer> counts = new IdentityHashMap<>();
+
+        /*
+         * Returns the value with one more user, null if there is none for the key yet.
+         */
+        V acquire(long key) {
+            final V value = values.get(key);
+            if (value != null) {
+                counts.put(value, counts.get(value) + 1);
+            }
+            return value;
+        }
+
+        void add(long key, V value) {
+            values.put(key, value);
+            keys.put(value, key);
+            counts.put(value, 1);
+        }
+
+        /*
+         * Returns true if that was the last user and the value has been dropped.
+         */
+        boolean release(V value) {
+            final Integer count = counts.get(value);
+            if (count == null) {
+                return false;
+            }
+            if (count > 1) {
+                counts.put(value, count - 1);
+                return false;
+            }
+            counts.remove(value);
+            values.remove(keys.remove(value));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.utils;
+
+/**
+ * The sRGB transfer function both ways through tables, for the models that
+ * work in linear light. Encoding is within half a level of the exact curve.
+ */
+final class SrgbTransfer {
+
+    /* Steps of the table that encodes linear light to sRGB. */
+    private static final int ENCODE_STEPS = 8192;
+    private static final int[] ENCODE = new int[ENCODE_STEPS + 1];
+    private static final float[] DECODE = new float[256];
+
+    static {
+        for (int i = 0; i <= ENCODE_STEPS; i++) {
+            final double linear = (double) i / ENCODE_STEPS;
+            final double encoded = linear <= 0.0031308 ? 12.92 * linear : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+            ENCODE[i] = (int) Math.round(encoded * 255);
+        }
+        for (int i = 0; i < 256; i++) {
+            final double encoded = i / 255.0;
+            DECODE[i] = (float) (encoded <= 0.04045 ? encoded / 12.92 : Math.pow((encoded + 0.055) / 1.055, 2.4));
+        }
+    }
+
+    private SrgbTransfer() {
+    }
+
+    /**
+     * @param linear linear light, clipped to 0 - 1
+     * @return the sRGB channel, 0 - 255
+     */
+    static int encode(float linear) {
+        if (linear <= 0f) {
+            return 0;
+        } else if (linear >= 1f) {
+            return 255;
+        }
+        return ENCODE[(int) (linear * ENCODE_STEPS + 0.5f)];
+    }
+
+    /**
+     * @param channel the sRGB channel, 0 - 255
+     * @return linear light, 0 - 1
+     */
+    static float decode(int channel) {
+        return DECODE[channel];
+    }
+}
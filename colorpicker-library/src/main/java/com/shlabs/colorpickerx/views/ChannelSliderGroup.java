@@ -0,0 +1,225 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.views;
+
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+import com.shlabs.colorpickerx.utils.ColorChangeDispatcher;
+import com.shlabs.colorpickerx.utils.HsvColor;
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnColorChangedListener;
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnColorSelectionListener;
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnHsvColorChangedListener;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * The color shared by a set of {@link ChannelSliderView}s, moving one slider moves the gradients
+ * of all the others. Changes are collected and applied once per frame: every strip that depends
+ * on what changed is rendered again in the same pass and the listeners are told once.
+ * <p>
+ * Dragging the red, green or blue slider down to black keeps the hue and saturation,
+ * a gray keeps its hue but has a saturation of 0.
+ * <p>
+ * Must be used from the main thread.
+ */
+public final class ChannelSliderGroup {
+
+    private final HsvColor hsvColor = new HsvColor();
+    private final ArrayList<ChannelSliderView> sliders = new ArrayList<>();
+
+    private OnColorChangedListener onColorChangedListener;
+    private OnHsvColorChangedListener onHsvColorChangedListener;
+    private final ColorChangeDispatcher colorChangeDispatcher = new ColorChangeDispatcher();
+
+    /* Set when the change came from a slider and the listeners are to be told. */
+    private boolean colorChangePending;
+    private boolean updateScheduled;
+    private final Choreographer.FrameCallback updateFrameCallback = frameTimeNanos -> {
+        updateScheduled = false;
+        update();
+    };
+
+    void add(ChannelSliderView slider) {
+        if (!sliders.contains(slider)) {
+            sliders.add(slider);
+            slider.updateStrip();
+        }
+    }
+
+    void remove(ChannelSliderView slider) {
+        sliders.remove(slider);
+    }
+
+    HsvColor getHsvColor() {
+        return hsvColor;
+    }
+
+    /*
+     * A slider has moved its channel, the others follow on the next frame or right away.
+     */
+    void onColorChanged(boolean now) {
+        colorChangePending = true;
+        if (now) {
+            update();
+        } else {
+            scheduleUpdate();
+        }
+    }
+
+    /*
+     * The touch on a slider has been released.
+     */
+    void onColorCommitted() {
+        update();
+        colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+    }
+
+    private void scheduleUpdate() {
+        if (!updateScheduled) {
+            updateScheduled = true;
+            Choreographer.getInstance().postFrameCallback(updateFrameCallback);
+        }
+    }
+
+    /*
+     * One pass over all the sliders, the strips that are out of date are rendered again.
+     */
+    private void update() {
+        if (updateScheduled) {
+            Choreographer.getInstance().removeFrameCallback(updateFrameCallback);
+            updateScheduled = false;
+        }
+
+        for (int i = 0; i < sliders.size(); i++) {
+            sliders.get(i).updateStrip();
+        }
+
+        if (colorChangePending) {
+            colorChangePending = false;
+            notifyColorChanged();
+            colorChangeDispatcher.onColorChanged(hsvColor.getColor());
+        }
+    }
+
+    private void notifyColorChanged() {
+        if (onColorChangedListener != null) {
+            onColorChangedListener.onColorChanged(hsvColor.getColor());
+        }
+        if (onHsvColorChangedListener != null) {
+            onHsvColorChangedListener.onColorChanged(hsvColor.getHue(), hsvColor.getSat(), hsvColor.getVal(),
+                    hsvColor.getAlpha());
+        }
+    }
+
+    /**
+     * Get the current color of the sliders.
+     *
+     * @return the current color.
+     */
+    public int getColor() {
+        return hsvColor.getColor();
+    }
+
+    /**
+     * Set the color the sliders should show.
+     *
+     * @param color The color that should be selected. #argb
+     */
+    public void setColor(int color) {
+        setColor(color, false);
+    }
+
+    /**
+     * Set the color the sliders should show, they are updated on the next frame.
+     *
+     * @param color    The color that should be selected. #argb
+     * @param callback If you want to get a callback to your OnColorChangedListener.
+     */
+    public void setColor(int color, boolean callback) {
+        if (hsvColor.setColor(color)) {
+            scheduleUpdate();
+        }
+
+        if (callback) {
+            notifyColorChanged();
+            colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+        }
+    }
+
+    /**
+     * Set a OnColorChangedListener to get notified when the color
+     * selected by the user has changed, at most once per frame.
+     *
+     * @param listener the listener
+     */
+    public void setOnColorChangedListener(@Nullable OnColorChangedListener listener) {
+        onColorChangedListener = listener;
+    }
+
+    /**
+     * Set a OnHsvColorChangedListener to get notified when the color
+     * selected by the user has changed, as the HSV components the group holds.
+     *
+     * @param listener the listener
+     */
+    public void setOnHsvColorChangedListener(@Nullable OnHsvColorChangedListener listener) {
+        onHsvColorChangedListener = listener;
+    }
+
+    /**
+     * Set a OnColorSelectionListener to get notified while the user
+     * changes the color and once more when the touch is released.
+     *
+     * @param listener the listener
+     */
+    public void setOnColorSelectionListener(@Nullable OnColorSelectionListener listener) {
+        colorChangeDispatcher.setListener(listener);
+    }
+
+    /**
+     * Set the maximum number of times per second the OnColorSelectionListener
+     * is told about changes while dragging. The last change is always delivered.
+     *
+     * @param perSecond the maximum rate, 0 to be told on every frame
+     */
+    public void setColorChangeMaxRate(int perSecond) {
+        colorChangeDispatcher.setMaxRate(perSecond);
+    }
+
+    /**
+     * Only tell the OnColorSelectionListener about a change once
+     * the color has not changed for the given time.
+     *
+     * @param ms the time in milliseconds, 0 to disable
+     */
+    public void setColorChangeDebounce(long ms) {
+        colorChangeDispatcher.setDebounce(ms);
+    }
+
+    /**
+     * Set the executor the OnColorSelectionListener is called on.
+     *
+     * @param executor the executor or null to be called on the main thread
+     */
+    public void setColorChangeExecutor(@Nullable Executor executor) {
+        colorChangeDispatcher.setExecutor(executor);
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.views;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Shader.TileMode;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import com.shlabs.colorpickerx.R;
+import com.shlabs.colorpickerx.utils.AlphaPatternDrawable;
+import com.shlabs.colorpickerx.utils.ChannelStrip;
+import com.shlabs.colorpickerx.utils.ColorChannel;
+import com.shlabs.colorpickerx.utils.HsvColor;
+
+/**
+ * A horizontal slider for one channel of a color, red, green, blue, hue, saturation,
+ * value or alpha, showing the gradient of the channel with the other channels as they are.
+ * <p>
+ * Sliders that share a {@link ChannelSliderGroup} pick the same color. The gradient is a
+ * {@link ChannelStrip} drawn through a shader scaled to the slider, it is only rendered again
+ * when one of the other channels has changed and the shader only changes with the size.
+ */
+public class ChannelSliderView extends View {
+
+    private final static int DEFAULT_BORDER_COLOR = 0xFF6E6E6E;
+    private final static int DEFAULT_SLIDER_COLOR = 0xFFBDBDBD;
+
+    private final static int SLIDER_WIDTH_DP = 200;
+    private final static int SLIDER_HEIGHT_DP = 20;
+    private final static int SLIDER_TRACKER_SIZE_DP = 4;
+    private final static int SLIDER_TRACKER_OFFSET_DP = 2;
+    private final static int TRACKER_STROKE_WIDTH_DP = 2;
+    private final static int ALPHA_PATTERN_SIZE_DP = 4;
+
+    private final static int BORDER_WIDTH_PX = 1;
+
+    private final Rect drawingRect = new Rect();
+    private final Rect sliderRect = new Rect();
+    private final RectF trackerRect = new RectF();
+    private final Matrix stripMatrix = new Matrix();
+
+    @ColorChannel
+    private int channel = ColorChannel.HUE;
+    private ChannelStrip strip;
+    private BitmapShader stripShader;
+    private ChannelSliderGroup group;
+
+    private Paint stripPaint;
+    private Paint borderPaint;
+    private Paint trackerPaint;
+    private AlphaPatternDrawable alphaPattern;
+
+    private int sliderTrackerSizePx;
+    private int sliderTrackerOffsetPx;
+    private int trackerStrokeWidthPx;
+    private int mRequiredPadding;
+
+    private int sliderTrackerColor = DEFAULT_SLIDER_COLOR;
+    private int borderColor = DEFAULT_BORDER_COLOR;
+
+    private boolean tracking;
+    /* Where the thumb was when the slider was last invalidated. */
+    private float thumbValue = Float.NaN;
+
+    private Context mContext;
+
+    public ChannelSliderView(Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    public ChannelSliderView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public ChannelSliderView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    private void init(Context context, AttributeSet attrs) {
+        mContext = context;
+        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.ChannelSliderView);
+        channel = a.getInt(R.styleable.ChannelSliderView_cpx_channel, ColorChannel.HUE);
+        sliderTrackerColor = a.getColor(R.styleable.ChannelSliderView_cpx_sliderColor, DEFAULT_SLIDER_COLOR);
+        borderColor = a.getColor(R.styleable.ChannelSliderView_cpx_borderColor, DEFAULT_BORDER_COLOR);
+        a.recycle();
+
+        applyThemeColors(context);
+
+        sliderTrackerSizePx = dpToPx(SLIDER_TRACKER_SIZE_DP);
+        sliderTrackerOffsetPx = dpToPx(SLIDER_TRACKER_OFFSET_DP);
+        trackerStrokeWidthPx = dpToPx(TRACKER_STROKE_WIDTH_DP);
+
+        mRequiredPadding = getResources().getDimensionPixelSize(R.dimen.cpx_required_padding);
+
+        initPaintTools();
+        alphaPattern = new AlphaPatternDrawable(dpToPx(ALPHA_PATTERN_SIZE_DP));
+        strip = new ChannelStrip(channel);
+
+        // On its own until it is put in a group.
+        group = new ChannelSliderGroup();
+        group.add(this);
+
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    private void applyThemeColors(Context c) {
+        // Same as the picker, the secondary text color unless a color has been set.
+        final TypedValue value = new TypedValue();
+        TypedArray a = c.obtainStyledAttributes(value.data, new int[]{android.R.attr.textColorSecondary});
+
+        if (borderColor == DEFAULT_BORDER_COLOR) {
+            borderColor = a.getColor(0, DEFAULT_BORDER_COLOR);
+        }
+
+        if (sliderTrackerColor == DEFAULT_SLIDER_COLOR) {
+            sliderTrackerColor = a.getColor(0, DEFAULT_SLIDER_COLOR);
+        }
+
+        a.recycle();
+    }
+
+    private void initPaintTools() {
+        stripPaint = new Paint();
+        borderPaint = new Paint();
+        trackerPaint = new Paint();
+
+        // The strip is stretched, filtering keeps the steps out of it.
+        stripPaint.setFilterBitmap(true);
+
+        trackerPaint.setColor(sliderTrackerColor);
+        trackerPaint.setStyle(Style.STROKE);
+        trackerPaint.setStrokeWidth(trackerStrokeWidthPx);
+        trackerPaint.setAntiAlias(true);
+    }
+
+    /*
+     * Called by the group once per frame, the strip is only rendered again if it has to
+     * and the slider only redrawn if the strip or the thumb has changed.
+     */
+    void updateStrip() {
+        final boolean rendered = strip.update(group.getHsvColor());
+        final float value = getChannelValue(channel, group.getHsvColor());
+        if (rendered || value != thumbValue) {
+            thumbValue = value;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        final Rect rect = sliderRect;
+        if (rect.width() <= 0 || rect.height() <= 0) {
+            return;
+        }
+
+        if (BORDER_WIDTH_PX > 0) {
+            borderPaint.setColor(borderColor);
+            canvas.drawRect(rect.left - BORDER_WIDTH_PX, rect.top - BORDER_WIDTH_PX, rect.right + BORDER_WIDTH_PX,
+                    rect.bottom + BORDER_WIDTH_PX, borderPaint);
+        }
+
+        if (channel == ColorChannel.ALPHA) {
+            alphaPattern.draw(canvas);
+        }
+
+        if (stripShader == null) {
+            stripShader = new BitmapShader(strip.getBitmap(), TileMode.CLAMP, TileMode.CLAMP);
+            stripShader.setLocalMatrix(stripMatrix);
+            stripPaint.setShader(stripShader);
+        }
+        // Normally done by the group already, this only catches a strip that has never been rendered.
+        strip.update(group.getHsvColor());
+        canvas.drawRect(rect, stripPaint);
+
+        final float x = rect.left + getChannelValue(channel, group.getHsvColor()) * rect.width();
+        final RectF r = trackerRect;
+        r.left = x - (sliderTrackerSizePx / 2f);
+        r.right = x + (sliderTrackerSizePx / 2f);
+        r.top = rect.top - sliderTrackerOffsetPx;
+        r.bottom = rect.bottom + sliderTrackerOffsetPx;
+
+        canvas.drawRoundRect(r, 2, 2, trackerPaint);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+
+        final int widthAllowed = MeasureSpec.getSize(widthMeasureSpec) - getPaddingLeft() - getPaddingRight();
+        final int heightAllowed = MeasureSpec.getSize(heightMeasureSpec) - getPaddingBottom() - getPaddingTop();
+
+        int width = dpToPx(SLIDER_WIDTH_DP);
+        if (widthMode == MeasureSpec.EXACTLY) {
+            width = widthAllowed;
+        } else if (widthMode == MeasureSpec.AT_MOST) {
+            width = Math.min(width, widthAllowed);
+        }
+
+        int height = dpToPx(SLIDER_HEIGHT_DP);
+        if (heightMode == MeasureSpec.EXACTLY) {
+            height = heightAllowed;
+        } else if (heightMode == MeasureSpec.AT_MOST) {
+            height = Math.min(height, heightAllowed);
+        }
+
+        setMeasuredDimension(Math.max(0, width) + getPaddingLeft() + getPaddingRight(),
+                Math.max(0, height) + getPaddingTop() + getPaddingBottom());
+    }
+
+    @Override
+    public int getPaddingTop() {
+        return Math.max(super.getPaddingTop(), mRequiredPadding);
+    }
+
+    @Override
+    public int getPaddingBottom() {
+        return Math.max(super.getPaddingBottom(), mRequiredPadding);
+    }
+
+    @Override
+    public int getPaddingLeft() {
+        return Math.max(super.getPaddingLeft(), mRequiredPadding);
+    }
+
+    @Override
+    public int getPaddingRight() {
+        return Math.max(super.getPaddingRight(), mRequiredPadding);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        drawingRect.set(getPaddingLeft(), getPaddingTop(), w - getPaddingRight(), h - getPaddingBottom());
+        sliderRect.set(drawingRect.left + BORDER_WIDTH_PX, drawingRect.top + BORDER_WIDTH_PX,
+                drawingRect.right - BORDER_WIDTH_PX, drawingRect.bottom - BORDER_WIDTH_PX);
+
+        alphaPattern.setBounds(sliderRect.left, sliderRect.top, sliderRect.right, sliderRect.bottom);
+
+        // The strip stays the same, only the way it is stretched over the slider changes.
+        stripMatrix.setScale((float) sliderRect.width() / ChannelStrip.WIDTH, sliderRect.height());
+        stripMatrix.postTranslate(sliderRect.left, sliderRect.top);
+        if (stripShader != null) {
+            stripShader.setLocalMatrix(stripMatrix);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+
+            case MotionEvent.ACTION_DOWN:
+                tracking = sliderRect.width() > 0;
+                if (tracking && moveTracker(event.getX())) {
+                    // The first touch is shown right away.
+                    group.onColorChanged(true);
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (tracking && moveTracker(event.getX())) {
+                    group.onColorChanged(false);
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (tracking) {
+                    if (event.getActionMasked() == MotionEvent.ACTION_UP && moveTracker(event.getX())) {
+                        group.onColorChanged(false);
+                    }
+                    group.onColorCommitted();
+                }
+                break;
+        }
+
+        final boolean handled = tracking;
+        if (event.getActionMasked() == MotionEvent.ACTION_UP || event.getActionMasked() == MotionEvent.ACTION_CANCEL) {
+            tracking = false;
+        }
+        return handled || super.onTouchEvent(event);
+    }
+
+    private boolean moveTracker(float x) {
+        final Rect rect = sliderRect;
+        final float value = (Math.max(rect.left, Math.min(rect.right, x)) - rect.left) / rect.width();
+        return setChannelValue(channel, group.getHsvColor(), value);
+    }
+
+    /*
+     * Where the channel is on the slider, 0 - 1.
+     */
+    private static float getChannelValue(@ColorChannel int channel, HsvColor color) {
+        switch (channel) {
+            case ColorChannel.RED:
+            case ColorChannel.GREEN:
+            case ColorChannel.BLUE:
+                return ((color.getColor() >> ((2 - channel) * 8)) & 0xff) / 255f;
+            case ColorChannel.HUE:
+                return color.getHue() / 360f;
+            case ColorChannel.SATURATION:
+                return color.getSat();
+            case ColorChannel.VALUE:
+                return color.getVal();
+            default:
+                return color.getAlpha() / 255f;
+        }
+    }
+
+    private static boolean setChannelValue(@ColorChannel int channel, HsvColor color, float value) {
+        switch (channel) {
+            case ColorChannel.RED:
+            case ColorChannel.GREEN:
+            case ColorChannel.BLUE: {
+                final int shift = (2 - channel) * 8;
+                final int component = Math.round(value * 255f);
+                final int rgb = (color.getColor() & ~(0xff << shift)) | (component << shift);
+                if ((rgb & 0x00ffffff) == 0) {
+                    // Black is black at any hue and saturation, the H and S sliders stay where they are.
+                    return color.setSatVal(color.getSat(), 0f);
+                }
+                // A gray keeps its hue, its saturation can only be 0.
+                return color.setColor(rgb);
+            }
+            case ColorChannel.HUE:
+                return color.setHue(value * 360f);
+            case ColorChannel.SATURATION:
+                return color.setSatVal(value, color.getVal());
+            case ColorChannel.VALUE:
+                return color.setSatVal(color.getSat(), value);
+            default:
+                return color.setAlpha(Math.round(value * 255f));
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // The pattern is shared, it is picked up again on the next draw.
+        alphaPattern.releasePattern();
+    }
+
+    /**
+     * Get the group of sliders this slider picks the color of.
+     *
+     * @return the group
+     */
+    public ChannelSliderGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Make this slider pick the color of a group, together with the other sliders in it.
+     * The color and the listeners are the ones of the group.
+     *
+     * @param group the group
+     */
+    public void setGroup(ChannelSliderGroup group) {
+        if (this.group != group) {
+            this.group.remove(this);
+            this.group = group;
+            group.add(this);
+        }
+    }
+
+    /**
+     * Get the channel this slider shows.
+     *
+     * @return the channel
+     */
+    @ColorChannel
+    public int getChannel() {
+        return channel;
+    }
+
+    /**
+     * Set the channel this slider shows.
+     *
+     * @param channel the channel
+     */
+    public void setChannel(@ColorChannel int channel) {
+        if (this.channel != channel) {
+            this.channel = channel;
+            strip = new ChannelStrip(channel);
+            stripShader = null;
+            updateStrip();
+        }
+    }
+
+    /**
+     * Get the current color of the group of this slider.
+     *
+     * @return the current color.
+     */
+    public int getColor() {
+        return group.getColor();
+    }
+
+    /**
+     * Set the color of the group of this slider, see {@link ChannelSliderGroup#setColor(int)}.
+     *
+     * @param color The color that should be selected. #argb
+     */
+    public void setColor(int color) {
+        group.setColor(color);
+    }
+
+    /**
+     * Get the color of the tracker of the slider.
+     *
+     * @return the color value
+     */
+    public int getSliderTrackerColor() {
+        return sliderTrackerColor;
+    }
+
+    /**
+     * Set the color of the tracker of the slider.
+     *
+     * @param color a color value
+     */
+    public void setSliderTrackerColor(int color) {
+        sliderTrackerColor = color;
+        trackerPaint.setColor(sliderTrackerColor);
+        invalidate();
+    }
+
+    /**
+     * Get the color of the border surrounding the slider.
+     */
+    public int getBorderColor() {
+        return borderColor;
+    }
+
+    /**
+     * Set the color of the border surrounding the slider.
+     *
+     * @param color a color value
+     */
+    public void setBorderColor(int color) {
+        borderColor = color;
+        invalidate();
+    }
+
+    private int dpToPx(float dipValue) {
+        DisplayMetrics metrics = mContext.getResources().getDisplayMetrics();
+        float val = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dipValue, metrics);
+        int res = (int) (val + 0.5);
+        return res == 0 && val > 0 ? 1 : res;
+    }
+}
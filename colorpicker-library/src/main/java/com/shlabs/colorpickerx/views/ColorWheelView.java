@@ -0,0 +1,642 @@
+/*
+ *  This file is part of ColorPickerX
+ *  Copyright (c) 2021   Saul Henriquez
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.shlabs.colorpickerx.views;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LightingColorFilter;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import com.shlabs.colorpickerx.R;
+import com.shlabs.colorpickerx.utils.ColorChangeDispatcher;
+import com.shlabs.colorpickerx.utils.HsvColor;
+import com.shlabs.colorpickerx.utils.SharedRenderCache;
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnColorChangedListener;
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnColorSelectionListener;
+import com.shlabs.colorpickerx.views.CustomPickerSelector.OnHsvColorChangedListener;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A hue / saturation wheel with a value slider beside it, the circular counterpart
+ * of {@link CustomPickerSelector} with the same listeners, so it can drive a {@link PanelView}
+ * the same way.
+ * <p>
+ * The wheel is rendered once per diameter from a polar lookup table and shared between views.
+ * Moving the value only changes the color filter the wheel is drawn with.
+ */
+public class ColorWheelView extends View {
+
+    private final static int DEFAULT_BORDER_COLOR = 0xFF6E6E6E;
+    private final static int DEFAULT_SLIDER_COLOR = 0xFFBDBDBD;
+
+    private final static int WHEEL_DIAMETER_DP = 200;
+    private final static int VALUE_PANEL_WIDTH_DP = 30;
+    private final static int PANEL_SPACING_DP = 10;
+    private final static int CIRCLE_TRACKER_RADIUS_DP = 5;
+    private final static int SLIDER_TRACKER_SIZE_DP = 4;
+    private final static int SLIDER_TRACKER_OFFSET_DP = 2;
+    private final static int TRACKER_STROKE_WIDTH_DP = 2;
+
+    private final static int BORDER_WIDTH_PX = 1;
+
+    private final HsvColor hsvColor = new HsvColor();
+    private final Rect drawingRect = new Rect();
+    private final Rect wheelRect = new Rect();
+    private final Rect valueRect = new Rect();
+    private final RectF trackerRect = new RectF();
+
+    /* Shared with the other views of the same size. */
+    private Bitmap wheel;
+    private Bitmap valueOverlay;
+
+    private Paint wheelPaint;
+    private Paint valuePaint;
+    private Paint borderPaint;
+    private Paint wheelTrackerPaint;
+    private Paint valueTrackerPaint;
+
+    /* The value the color filter of the wheel paint is for, 0 - 255. */
+    private int wheelFilterValue = -1;
+
+    private int valuePanelWidthPx;
+    private int panelSpacingPx;
+    private int circleTrackerRadiusPx;
+    private int circleTrackerInnerRadiusPx;
+    private int sliderTrackerSizePx;
+    private int sliderTrackerOffsetPx;
+    private int trackerStrokeWidthPx;
+    private int mRequiredPadding;
+
+    private int sliderTrackerColor = DEFAULT_SLIDER_COLOR;
+    private int borderColor = DEFAULT_BORDER_COLOR;
+
+    /* The panel the touch started on, null if none. */
+    private Rect touchedPanel;
+
+    private OnColorChangedListener onColorChangedListener;
+    private OnHsvColorChangedListener onHsvColorChangedListener;
+    private final ColorChangeDispatcher colorChangeDispatcher = new ColorChangeDispatcher();
+
+    /* Moves are collapsed to one color change per frame. */
+    private boolean colorChangePending;
+    private boolean colorChangeScheduled;
+    private final Choreographer.FrameCallback colorChangeFrameCallback = frameTimeNanos -> {
+        colorChangeScheduled = false;
+        dispatchColorChanged();
+    };
+
+    private Context mContext;
+
+    public ColorWheelView(Context context) {
+        super(context);
+        init(context, null);
+    }
+
+    public ColorWheelView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs);
+    }
+
+    public ColorWheelView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs);
+    }
+
+    private void init(Context context, AttributeSet attrs) {
+        mContext = context;
+        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.ColorWheelView);
+        sliderTrackerColor = a.getColor(R.styleable.ColorWheelView_cpx_sliderColor, DEFAULT_SLIDER_COLOR);
+        borderColor = a.getColor(R.styleable.ColorWheelView_cpx_borderColor, DEFAULT_BORDER_COLOR);
+        a.recycle();
+
+        applyThemeColors(context);
+
+        valuePanelWidthPx = dpToPx(VALUE_PANEL_WIDTH_DP);
+        panelSpacingPx = dpToPx(PANEL_SPACING_DP);
+        circleTrackerRadiusPx = dpToPx(CIRCLE_TRACKER_RADIUS_DP);
+        circleTrackerInnerRadiusPx = circleTrackerRadiusPx - dpToPx(1);
+        sliderTrackerSizePx = dpToPx(SLIDER_TRACKER_SIZE_DP);
+        sliderTrackerOffsetPx = dpToPx(SLIDER_TRACKER_OFFSET_DP);
+        trackerStrokeWidthPx = dpToPx(TRACKER_STROKE_WIDTH_DP);
+
+        mRequiredPadding = getResources().getDimensionPixelSize(R.dimen.cpx_required_padding);
+
+        initPaintTools();
+        updateWheelFilter();
+
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    private void applyThemeColors(Context c) {
+        // Same as the picker, the secondary text color unless a color has been set.
+        final TypedValue value = new TypedValue();
+        TypedArray a = c.obtainStyledAttributes(value.data, new int[]{android.R.attr.textColorSecondary});
+
+        if (borderColor == DEFAULT_BORDER_COLOR) {
+            borderColor = a.getColor(0, DEFAULT_BORDER_COLOR);
+        }
+
+        if (sliderTrackerColor == DEFAULT_SLIDER_COLOR) {
+            sliderTrackerColor = a.getColor(0, DEFAULT_SLIDER_COLOR);
+        }
+
+        a.recycle();
+    }
+
+    private void initPaintTools() {
+        wheelPaint = new Paint();
+        valuePaint = new Paint();
+        borderPaint = new Paint();
+        wheelTrackerPaint = new Paint();
+        valueTrackerPaint = new Paint();
+
+        // Keeps the wheel smooth if the canvas is scaled.
+        wheelPaint.setFilterBitmap(true);
+        borderPaint.setAntiAlias(true);
+
+        wheelTrackerPaint.setStyle(Style.STROKE);
+        wheelTrackerPaint.setStrokeWidth(trackerStrokeWidthPx);
+        wheelTrackerPaint.setAntiAlias(true);
+
+        valueTrackerPaint.setColor(sliderTrackerColor);
+        valueTrackerPaint.setStyle(Style.STROKE);
+        valueTrackerPaint.setStrokeWidth(trackerStrokeWidthPx);
+        valueTrackerPaint.setAntiAlias(true);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (wheelRect.width() <= 0 || wheelRect.height() <= 0) {
+            return;
+        }
+
+        drawWheel(canvas);
+        drawValuePanel(canvas);
+    }
+
+    private void drawWheel(Canvas canvas) {
+        final Rect rect = wheelRect;
+
+        if (BORDER_WIDTH_PX > 0) {
+            borderPaint.setColor(borderColor);
+            canvas.drawCircle(rect.exactCenterX(), rect.exactCenterY(), rect.width() / 2f + BORDER_WIDTH_PX,
+                    borderPaint);
+        }
+
+        if (wheel == null || wheel.getWidth() != rect.width()) {
+            if (wheel != null) {
+                SharedRenderCache.releaseHueSatWheel(wheel);
+            }
+            wheel = SharedRenderCache.acquireHueSatWheel(rect.width());
+        }
+
+        canvas.drawBitmap(wheel, null, rect, wheelPaint);
+
+        final float radius = rect.width() / 2f;
+        final double angle = Math.toRadians(hsvColor.getHue());
+        final float x = rect.exactCenterX() + (float) Math.cos(angle) * hsvColor.getSat() * radius;
+        final float y = rect.exactCenterY() - (float) Math.sin(angle) * hsvColor.getSat() * radius;
+
+        wheelTrackerPaint.setColor(0xff000000);
+        canvas.drawCircle(x, y, circleTrackerInnerRadiusPx, wheelTrackerPaint);
+
+        wheelTrackerPaint.setColor(0xffdddddd);
+        canvas.drawCircle(x, y, circleTrackerRadiusPx, wheelTrackerPaint);
+    }
+
+    /*
+     * The wheel is at full value, every color of a lower value is the same color scaled down.
+     * Done when the value is set, not while drawing, and only once the 8 bit value has changed.
+     */
+    private void updateWheelFilter() {
+        final int value = Math.round(hsvColor.getVal() * 255f);
+        if (value != wheelFilterValue) {
+            wheelPaint.setColorFilter(new LightingColorFilter(Color.rgb(value, value, value), 0));
+            wheelFilterValue = value;
+        }
+    }
+
+    private void drawValuePanel(Canvas canvas) {
+        final Rect rect = valueRect;
+
+        if (BORDER_WIDTH_PX > 0) {
+            borderPaint.setColor(borderColor);
+            canvas.drawRect(rect.left - BORDER_WIDTH_PX, rect.top - BORDER_WIDTH_PX, rect.right + BORDER_WIDTH_PX,
+                    rect.bottom + BORDER_WIDTH_PX, borderPaint);
+        }
+
+        if (valueOverlay == null || valueOverlay.getHeight() != rect.height()) {
+            if (valueOverlay != null) {
+                SharedRenderCache.releaseSatValOverlay(valueOverlay);
+            }
+            valueOverlay = SharedRenderCache.acquireSatValOverlay(rect.height(), true);
+        }
+
+        // The color at full value darkened by the same black layer as the sat/val panel.
+        valuePaint.setColor(HsvColor.HSVToColor(0xff, hsvColor.getHue(), hsvColor.getSat(), 1f));
+        canvas.drawRect(rect, valuePaint);
+        canvas.drawBitmap(valueOverlay, null, rect, null);
+
+        final float y = rect.top + (1f - hsvColor.getVal()) * rect.height();
+        final RectF r = trackerRect;
+        r.left = rect.left - sliderTrackerOffsetPx;
+        r.right = rect.right + sliderTrackerOffsetPx;
+        r.top = y - (sliderTrackerSizePx / 2f);
+        r.bottom = y + (sliderTrackerSizePx / 2f);
+
+        canvas.drawRoundRect(r, 2, 2, valueTrackerPaint);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+
+        final int widthAllowed = MeasureSpec.getSize(widthMeasureSpec) - getPaddingLeft() - getPaddingRight();
+        final int heightAllowed = MeasureSpec.getSize(heightMeasureSpec) - getPaddingBottom() - getPaddingTop();
+        final int extraWidth = panelSpacingPx + valuePanelWidthPx;
+
+        // As big as the allowed space lets the wheel be, the default size if nothing limits it.
+        int diameter = Integer.MAX_VALUE;
+        if (widthMode != MeasureSpec.UNSPECIFIED) {
+            diameter = Math.min(diameter, widthAllowed - extraWidth);
+        }
+        if (heightMode != MeasureSpec.UNSPECIFIED) {
+            diameter = Math.min(diameter, heightAllowed);
+        }
+        if (diameter == Integer.MAX_VALUE) {
+            diameter = dpToPx(WHEEL_DIAMETER_DP);
+        }
+        diameter = Math.max(0, diameter);
+
+        final int finalWidth = widthMode == MeasureSpec.EXACTLY ? widthAllowed : diameter + extraWidth;
+        final int finalHeight = heightMode == MeasureSpec.EXACTLY ? heightAllowed : diameter;
+
+        setMeasuredDimension(finalWidth + getPaddingLeft() + getPaddingRight(),
+                finalHeight + getPaddingTop() + getPaddingBottom());
+    }
+
+    @Override
+    public int getPaddingTop() {
+        return Math.max(super.getPaddingTop(), mRequiredPadding);
+    }
+
+    @Override
+    public int getPaddingBottom() {
+        return Math.max(super.getPaddingBottom(), mRequiredPadding);
+    }
+
+    @Override
+    public int getPaddingLeft() {
+        return Math.max(super.getPaddingLeft(), mRequiredPadding);
+    }
+
+    @Override
+    public int getPaddingRight() {
+        return Math.max(super.getPaddingRight(), mRequiredPadding);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        drawingRect.set(getPaddingLeft(), getPaddingTop(), w - getPaddingRight(), h - getPaddingBottom());
+
+        // The wheel on the left and the value panel on the right, both centered vertically.
+        final int diameter = Math.max(0, Math.min(drawingRect.width() - panelSpacingPx - valuePanelWidthPx,
+                drawingRect.height()));
+        final int top = drawingRect.top + (drawingRect.height() - diameter) / 2;
+
+        wheelRect.set(drawingRect.left + BORDER_WIDTH_PX, top + BORDER_WIDTH_PX,
+                drawingRect.left + diameter - BORDER_WIDTH_PX, top + diameter - BORDER_WIDTH_PX);
+        valueRect.set(drawingRect.right - valuePanelWidthPx + BORDER_WIDTH_PX, top + BORDER_WIDTH_PX,
+                drawingRect.right - BORDER_WIDTH_PX, top + diameter - BORDER_WIDTH_PX);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+
+            case MotionEvent.ACTION_DOWN:
+                touchedPanel = getPanelAt(event.getX(), event.getY());
+                colorChangePending |= moveTrackers(event);
+                // The first touch is shown right away.
+                dispatchColorChanged();
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (moveTrackers(event)) {
+                    colorChangePending = true;
+                    scheduleColorChanged();
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+                    colorChangePending |= moveTrackers(event);
+                }
+                dispatchColorChanged();
+                if (touchedPanel != null) {
+                    colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+                }
+                break;
+        }
+
+        final boolean handled = touchedPanel != null;
+        if (event.getActionMasked() == MotionEvent.ACTION_UP || event.getActionMasked() == MotionEvent.ACTION_CANCEL) {
+            touchedPanel = null;
+        }
+        return handled || super.onTouchEvent(event);
+    }
+
+    /*
+     * The wheel takes the touches on its bounding square, the corners pick the edge of the wheel.
+     */
+    private Rect getPanelAt(float x, float y) {
+        if (wheelRect.contains((int) x, (int) y)) {
+            return wheelRect;
+        } else if (valueRect.contains((int) x, (int) y)) {
+            return valueRect;
+        }
+        return null;
+    }
+
+    private boolean moveTrackers(MotionEvent event) {
+        if (touchedPanel == wheelRect) {
+            return pointToHueSat(event.getX(), event.getY());
+        } else if (touchedPanel == valueRect) {
+            return pointToVal(event.getY());
+        }
+        return false;
+    }
+
+    private boolean pointToHueSat(float x, float y) {
+        final float dx = x - wheelRect.exactCenterX();
+        final float dy = wheelRect.exactCenterY() - y;
+        final float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (distance == 0f) {
+            // No hue at the center, keep the one we have.
+            return hsvColor.setSatVal(0f, hsvColor.getVal());
+        }
+
+        float hue = (float) Math.toDegrees(Math.atan2(dy, dx));
+        if (hue < 0f) {
+            hue += 360f;
+        }
+        final float sat = Math.min(1f, distance / (wheelRect.width() / 2f));
+        return hsvColor.set(hsvColor.getAlpha(), hue, sat, hsvColor.getVal());
+    }
+
+    private boolean pointToVal(float y) {
+        final Rect rect = valueRect;
+        final float val = 1f - (Math.max(rect.top, Math.min(rect.bottom, y)) - rect.top) / rect.height();
+        if (hsvColor.setSatVal(hsvColor.getSat(), val)) {
+            updateWheelFilter();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // Acquired again on the next draw.
+        if (wheel != null) {
+            SharedRenderCache.releaseHueSatWheel(wheel);
+            wheel = null;
+        }
+        if (valueOverlay != null) {
+            SharedRenderCache.releaseSatValOverlay(valueOverlay);
+            valueOverlay = null;
+        }
+        if (colorChangeScheduled) {
+            Choreographer.getInstance().removeFrameCallback(colorChangeFrameCallback);
+            colorChangeScheduled = false;
+        }
+        // Nothing is delivered for a view that is gone.
+        colorChangeDispatcher.cancel();
+    }
+
+    private void scheduleColorChanged() {
+        if (!colorChangeScheduled) {
+            colorChangeScheduled = true;
+            Choreographer.getInstance().postFrameCallback(colorChangeFrameCallback);
+        }
+    }
+
+    /*
+     * Publish the pending color change now, if there is one.
+     */
+    private void dispatchColorChanged() {
+        if (colorChangeScheduled) {
+            Choreographer.getInstance().removeFrameCallback(colorChangeFrameCallback);
+            colorChangeScheduled = false;
+        }
+
+        if (!colorChangePending) {
+            return;
+        }
+        colorChangePending = false;
+
+        notifyColorChanged();
+        colorChangeDispatcher.onColorChanged(hsvColor.getColor());
+        invalidate();
+    }
+
+    private void notifyColorChanged() {
+        if (onColorChangedListener != null) {
+            onColorChangedListener.onColorChanged(hsvColor.getColor());
+        }
+        if (onHsvColorChangedListener != null) {
+            onHsvColorChangedListener.onColorChanged(hsvColor.getHue(), hsvColor.getSat(), hsvColor.getVal(),
+                    hsvColor.getAlpha());
+        }
+    }
+
+    /**
+     * Get the current color this view is showing.
+     *
+     * @return the current color.
+     */
+    public int getColor() {
+        return hsvColor.getColor();
+    }
+
+    /**
+     * Get the current color as HSV without converting it, the view holds the color that way.
+     *
+     * @param hsv filled with the hue (0 - 360), saturation (0 - 1) and value (0 - 1),
+     *            and the alpha (0 - 255) if it has a fourth element
+     * @return the same array
+     */
+    public float[] getColorHsv(float[] hsv) {
+        hsv[0] = hsvColor.getHue();
+        hsv[1] = hsvColor.getSat();
+        hsv[2] = hsvColor.getVal();
+        if (hsv.length > 3) {
+            hsv[3] = hsvColor.getAlpha();
+        }
+        return hsv;
+    }
+
+    /**
+     * Set the color the view should show.
+     *
+     * @param color The color that should be selected. #argb
+     */
+    public void setColor(int color) {
+        setColor(color, false);
+    }
+
+    /**
+     * Set the color this view should show. The alpha is kept and given back
+     * with the color, the wheel has no alpha slider.
+     *
+     * @param color    The color that should be selected. #argb
+     * @param callback If you want to get a callback to your OnColorChangedListener.
+     */
+    public void setColor(int color, boolean callback) {
+        if (hsvColor.setColor(color)) {
+            updateWheelFilter();
+            invalidate();
+        }
+
+        if (callback) {
+            notifyColorChanged();
+            colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+        }
+    }
+
+    /**
+     * Get the color of the tracker slider on the value panel.
+     *
+     * @return the color value
+     */
+    public int getSliderTrackerColor() {
+        return sliderTrackerColor;
+    }
+
+    /**
+     * Set the color of the tracker slider on the value panel.
+     *
+     * @param color a color value
+     */
+    public void setSliderTrackerColor(int color) {
+        sliderTrackerColor = color;
+        valueTrackerPaint.setColor(sliderTrackerColor);
+        invalidate();
+    }
+
+    /**
+     * Get the color of the border surrounding the wheel and the value panel.
+     */
+    public int getBorderColor() {
+        return borderColor;
+    }
+
+    /**
+     * Set the color of the border surrounding the wheel and the value panel.
+     *
+     * @param color a color value
+     */
+    public void setBorderColor(int color) {
+        borderColor = color;
+        invalidate();
+    }
+
+    /**
+     * Set a OnColorChangedListener to get notified when the color
+     * selected by the user has changed.
+     *
+     * @param listener the listener
+     */
+    public void setOnColorChangedListener(@Nullable OnColorChangedListener listener) {
+        onColorChangedListener = listener;
+    }
+
+    /**
+     * Set a OnHsvColorChangedListener to get notified when the color
+     * selected by the user has changed, as the HSV components the view holds.
+     *
+     * @param listener the listener
+     */
+    public void setOnHsvColorChangedListener(@Nullable OnHsvColorChangedListener listener) {
+        onHsvColorChangedListener = listener;
+    }
+
+    /**
+     * Set a OnColorSelectionListener to get notified while the user
+     * changes the color and once more when the touch is released.
+     *
+     * @param listener the listener
+     */
+    public void setOnColorSelectionListener(@Nullable OnColorSelectionListener listener) {
+        colorChangeDispatcher.setListener(listener);
+    }
+
+    /**
+     * Set the maximum number of times per second the OnColorSelectionListener
+     * is told about changes while dragging. The last change is always delivered.
+     *
+     * @param perSecond the maximum rate, 0 to be told on every frame
+     */
+    public void setColorChangeMaxRate(int perSecond) {
+        colorChangeDispatcher.setMaxRate(perSecond);
+    }
+
+    /**
+     * Only tell the OnColorSelectionListener about a change once
+     * the color has not changed for the given time.
+     *
+     * @param ms the time in milliseconds, 0 to disable
+     */
+    public void setColorChangeDebounce(long ms) {
+        colorChangeDispatcher.setDebounce(ms);
+    }
+
+    /**
+     * Set the executor the OnColorSelectionListener is called on.
+     *
+     * @param executor the executor or null to be called on the main thread
+     */
+    public void setColorChangeExecutor(@Nullable Executor executor) {
+        colorChangeDispatcher.setExecutor(executor);
+    }
+
+    private int dpToPx(float dipValue) {
+        DisplayMetrics metrics = mContext.getResources().getDisplayMetrics();
+        float val = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dipValue, metrics);
+        int res = (int) (val + 0.5);
+        return res == 0 && val > 0 ? 1 : res;
+    }
+}
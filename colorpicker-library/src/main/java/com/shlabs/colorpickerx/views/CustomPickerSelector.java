@@ -18,12 +18,11 @@
 
 package com.shlabs.colorpickerx.views;
 
+import android.animation.TimeInterpolator;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
-import android.graphics.Bitmap.Config;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.ComposeShader;
 import android.graphics.LinearGradient;
 import android.graphics.Paint;
@@ -32,19 +31,40 @@ import android.graphics.Paint.Style;
 import android.graphics.Point;
 import android.graphics.PorterDuff;
 import android.graphics.Rect;
+import android.graphics.RecordingCanvas;
 import android.graphics.RectF;
+import android.graphics.RenderNode;
 import android.graphics.Shader;
 import android.graphics.Shader.TileMode;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.View;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
 import com.shlabs.colorpickerx.R;
 import com.shlabs.colorpickerx.utils.AlphaPatternDrawable;
+import com.shlabs.colorpickerx.utils.CacheConfig;
+import com.shlabs.colorpickerx.utils.ColorChangeDispatcher;
+import com.shlabs.colorpickerx.utils.ColorModel;
+import com.shlabs.colorpickerx.utils.ColorModels;
+import com.shlabs.colorpickerx.utils.HsvColor;
+import com.shlabs.colorpickerx.utils.PickerColorSpace;
+import com.shlabs.colorpickerx.utils.PlaneRasterizer;
+import com.shlabs.colorpickerx.utils.RenderMode;
+import com.shlabs.colorpickerx.utils.SatValBitmapCache;
+import com.shlabs.colorpickerx.utils.SatValRenderWorker;
+import com.shlabs.colorpickerx.utils.SharedRenderCache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CustomPickerSelector extends View {
 
@@ -57,17 +77,37 @@ public class CustomPickerSelector extends View {
     private final static int CIRCLE_TRACKER_RADIUS_DP = 5;
     private final static int SLIDER_TRACKER_SIZE_DP = 4;
     private final static int SLIDER_TRACKER_OFFSET_DP = 2;
+    private final static int TRACKER_STROKE_WIDTH_DP = 2;
+    private final static int ALPHA_TEXT_SIZE_DP = 14;
+    private final static int ALPHA_TEXT_OFFSET_DP = 4;
+    private final static int ALPHA_PATTERN_SIZE_DP = 4;
 
     private final static int BORDER_WIDTH_PX = 1;
 
-    private BitmapCache hueBackgroundCache;
+    /* The preview while dragging the hue is this many times smaller than the panel bitmap. */
+    private final static int PREVIEW_SCALE_DIVISOR = 4;
+    /* How far ahead the tracker is drawn in the low latency mode, about a frame. */
+    private final static long PREDICTION_MS = 16;
+    /* The full resolution is rendered once the hue hasn't moved for this long. */
+    private final static long PREVIEW_PAUSE_MS = 120;
+
+    /**
+     * Render scale that picks one bitmap pixel per dp.
+     */
+    public final static float RENDER_SCALE_AUTO = 0f;
+    private final static float MIN_RENDER_SCALE = 0.25f;
+
+    /* Shared with the other pickers, stretched over the hue panel. */
+    private Bitmap hueStrip;
     private int sliderTrackerSizePx;
     private int sliderTrackerOffsetPx;
+    private int trackerStrokeWidthPx;
+    private int alphaTextOffsetPx;
     private Paint borderPaint;
     private Paint alphaPaint;
     private Paint alphaTextPaint;
     private Paint hueAlphaTrackerPaint;
-    private Rect drawingRect;
+    private final Rect drawingRect = new Rect();
     private int huePanelWidthPx;
 
     private int sliderTrackerColor = DEFAULT_SLIDER_COLOR;
@@ -77,30 +117,140 @@ public class CustomPickerSelector extends View {
     private int alphaPanelHeightPx;
     private int panelSpacingPx;
     /* Current values */
-    private int alpha = 0xff;
-    private float hue = 360f;
-    private float sat = 0f;
-    private float val = 0f;
-    private Rect satValRect;
-    private Rect hueRect;
-    private Rect alphaRect;
+    private final HsvColor hsvColor = new HsvColor();
+    /* With another model than HSV the trackers follow these, the HSV color is converted from them. */
+    private ColorModel colorModel = ColorModels.HSV;
+    private final float[] modelComponents = new float[3];
+    private final float[] trackerComponents = new float[3];
+    private final Rect satValRect = new Rect();
+    private final Rect hueRect = new Rect();
+    private final Rect alphaRect = new Rect();
+
+    /* The area each panel draws on, including the border and the tracker. */
+    private final Rect satValBounds = new Rect();
+    private final Rect hueBounds = new Rect();
+    private final Rect alphaBounds = new Rect();
+    private int trackerOverhangPx;
+
+    /* What needs to be drawn again, collected until the next invalidate. */
+    private final Rect dirtyRect = new Rect();
+    private final Rect oldTrackerRect = new Rect();
+    private final Rect newTrackerRect = new Rect();
+    private final Rect clipRect = new Rect();
+
+    /* The sat/val and hue panels without their trackers, recorded once and replayed while a tracker moves. */
+    private RenderNode panelNode;
+    private boolean panelsDirty = true;
+    private float panelNodeHue = Float.NaN;
 
     private String alphaSliderText = null;
 
     private Shader valShader;
     private Shader satShader;
+    /* The sat/val gradients drawn straight to a hardware canvas, in view coordinates. */
+    private Shader directSatShader;
+    private Shader directValShader;
+    private final Rect directShaderRect = new Rect();
+    private boolean satValHardwareShader = true;
+    private boolean satValDrawnDirect;
     private Shader alphaShader;
+    /* The opaque color the alpha shader was created with. */
+    private int alphaShaderColor;
 
     private BitmapCache satValBackgroundCache;
+    /* For the color space of the cache, null until needed. */
+    private PlaneRasterizer satValRasterizer;
+    /* Shared with the other pickers of the same config, null until needed. */
+    private SatValBitmapCache satValBitmapCache;
+    private final SatValRenderWorker satValRenderWorker = new SatValRenderWorker(this::onSatValRendered);
+    /* The hue the worker is rendering, NaN if none. */
+    private float satValPendingHue = Float.NaN;
+    private boolean satValBackgroundRender = true;
+    private boolean satValProgressive = false;
+    /* Coarse sat/val bitmap shown while the hue is dragged. */
+    private boolean satValPreview;
+    private Bitmap satValPreviewBitmap;
+    private float satValPreviewHue = Float.NaN;
+    private final Runnable satValPreviewEndRunnable = this::endSatValPreview;
+    @RenderMode
+    private int satValRenderMode = RenderMode.RASTER;
+    private float satValRenderScale = 1f;
+    @CacheConfig
+    private int cacheConfig = CacheConfig.ARGB_8888;
+    /* Size of the sat/val bitmaps, the panel scaled by the render scale. */
+    private int satValBitmapWidth;
+    private int satValBitmapHeight;
     private Paint satValPaint;
+    private Paint satValBitmapPaint;
+    private Paint satValHuePaint;
+    /* The layers of the layered mode, shared with the other pickers of the same size. */
+    private Bitmap satValWhiteOverlay;
+    private Bitmap satValBlackOverlay;
     private Paint satValTrackerPaint;
     private int circleTrackerRadiusPx;
+    private int circleTrackerInnerRadiusPx;
     private AlphaPatternDrawable alphaPatternDrawable;
     private OnColorChangedListener onColorChangedListener;
+    private OnHsvColorChangedListener onHsvColorChangedListener;
+    private final ColorChangeDispatcher colorChangeDispatcher = new ColorChangeDispatcher();
     private int mRequiredPadding;
     private Context mContext;
 
-    private Point startTouchPoint = null;
+    private final Point startTouchPoint = new Point();
+    private boolean tracking;
+
+    /* A color change from a move is published once per frame. */
+    private boolean colorChangePending;
+    private boolean colorChangeScheduled;
+    private final Choreographer.FrameCallback colorChangeFrameCallback = frameTimeNanos -> {
+        colorChangeScheduled = false;
+        dispatchColorChanged();
+    };
+
+    /*
+     * A color set from another thread, applied on the main thread as soon as it gets to it,
+     * drawn or not. The color is in the low 32 bits with flags above, the latest one
+     * replaces the one waiting.
+     */
+    private static final long PUBLISHED = 1L << 32;
+    private static final long PUBLISHED_CALLBACK = 1L << 33;
+    private final AtomicLong publishedColor = new AtomicLong();
+    /* Not View.post, it has to run while the view is detached too. */
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable publishedColorRunnable = this::applyPublishedColorNow;
+    private final Runnable publishedColorCallback = () -> {
+        notifyColorChanged();
+        colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+    };
+
+    /* Programmatic transition to a color, driven by the frame clock. */
+    private final HsvColor animationTarget = new HsvColor();
+    private final Choreographer.FrameCallback animationFrameCallback = this::onAnimationFrame;
+    private boolean animating;
+    private boolean animationNotifyIntermediate;
+    private TimeInterpolator animationInterpolator;
+    private long animationStartNanos;
+    private long animationDurationNanos;
+    private int animationFromAlpha;
+    private float animationFromHue;
+    private float animationFromSat;
+    private float animationFromVal;
+    private float animationHueDelta;
+    private int animationToColor;
+
+    /* Reused for the tracker positions while drawing. */
+    private final Point trackerPoint = new Point();
+    private final RectF trackerRect = new RectF();
+    private float lastTouchHue;
+    private long lastTouchHueTime;
+
+    /* Where the finger should be when the frame shows, only used to draw the tracker. */
+    private boolean lowLatencyInput;
+    private final Point predictedPoint = new Point();
+    private Rect predictedPanel;
+    private float lastTouchX;
+    private float lastTouchY;
+    private long lastTouchTime;
 
     public CustomPickerSelector(Context context) {
         super(context);
@@ -125,7 +275,15 @@ public class CustomPickerSelector extends View {
         alphaSliderText = a.getString(R.styleable.CustomPickerSelector_cpx_alphaChannelText);
         sliderTrackerColor = a.getColor(R.styleable.CustomPickerSelector_cpx_sliderColor, 0xFFBDBDBD);
         borderColor = a.getColor(R.styleable.CustomPickerSelector_cpx_borderColor, 0xFF6E6E6E);
+        satValRenderMode = a.getInt(R.styleable.CustomPickerSelector_cpx_satValRenderMode, RenderMode.RASTER);
+        satValRenderScale = a.getFloat(R.styleable.CustomPickerSelector_cpx_satValRenderScale, 1f);
+        cacheConfig = a.getInt(R.styleable.CustomPickerSelector_cpx_cacheConfig, CacheConfig.ARGB_8888);
+        satValProgressive = a.getBoolean(R.styleable.CustomPickerSelector_cpx_satValProgressive, false);
+        lowLatencyInput = a.getBoolean(R.styleable.CustomPickerSelector_cpx_lowLatencyInput, false);
+        colorModel = ColorModels.forColorSpace(a.getInt(R.styleable.CustomPickerSelector_cpx_colorSpace,
+                PickerColorSpace.HSV));
         a.recycle();
+        syncModel();
 
         applyThemeColors(context);
 
@@ -133,12 +291,20 @@ public class CustomPickerSelector extends View {
         alphaPanelHeightPx = dpToPx(ALPHA_PANEL_HEIGHT_DP);
         panelSpacingPx = dpToPx(PANEL_SPACING_DP);
         circleTrackerRadiusPx = dpToPx(CIRCLE_TRACKER_RADIUS_DP);
+        circleTrackerInnerRadiusPx = circleTrackerRadiusPx - dpToPx(1);
         sliderTrackerSizePx = dpToPx(SLIDER_TRACKER_SIZE_DP);
         sliderTrackerOffsetPx = dpToPx(SLIDER_TRACKER_OFFSET_DP);
+        trackerStrokeWidthPx = dpToPx(TRACKER_STROKE_WIDTH_DP);
+        alphaTextOffsetPx = dpToPx(ALPHA_TEXT_OFFSET_DP);
+        trackerOverhangPx = Math.max(circleTrackerRadiusPx, sliderTrackerOffsetPx + sliderTrackerSizePx)
+                + trackerStrokeWidthPx;
 
         mRequiredPadding = getResources().getDimensionPixelSize(R.dimen.cpx_required_padding);
 
+        alphaPatternDrawable = new AlphaPatternDrawable(dpToPx(ALPHA_PATTERN_SIZE_DP));
+
         initPaintTools();
+        applyCacheConfig();
 
         //Needed for receiving trackball motion events.
         setFocusable(true);
@@ -167,24 +333,29 @@ public class CustomPickerSelector extends View {
 
     private void initPaintTools() {
         satValPaint = new Paint();
+        satValBitmapPaint = new Paint();
+        satValHuePaint = new Paint();
         satValTrackerPaint = new Paint();
         hueAlphaTrackerPaint = new Paint();
         alphaPaint = new Paint();
         alphaTextPaint = new Paint();
         borderPaint = new Paint();
 
+        // The sat/val bitmap may be smaller than the panel, filter it so it stays smooth.
+        satValBitmapPaint.setFilterBitmap(true);
+
         satValTrackerPaint.setStyle(Style.STROKE);
-        satValTrackerPaint.setStrokeWidth(dpToPx(2));
+        satValTrackerPaint.setStrokeWidth(trackerStrokeWidthPx);
         satValTrackerPaint.setAntiAlias(true);
 
         hueAlphaTrackerPaint = new Paint();
         hueAlphaTrackerPaint.setColor(sliderTrackerColor);
         hueAlphaTrackerPaint.setStyle(Style.STROKE);
-        hueAlphaTrackerPaint.setStrokeWidth(dpToPx(2));
+        hueAlphaTrackerPaint.setStrokeWidth(trackerStrokeWidthPx);
         hueAlphaTrackerPaint.setAntiAlias(true);
 
         alphaTextPaint.setColor(0xff1c1c1c);
-        alphaTextPaint.setTextSize(dpToPx(14));
+        alphaTextPaint.setTextSize(dpToPx(ALPHA_TEXT_SIZE_DP));
         alphaTextPaint.setAntiAlias(true);
         alphaTextPaint.setTextAlign(Align.CENTER);
         alphaTextPaint.setFakeBoldText(true);
@@ -192,12 +363,72 @@ public class CustomPickerSelector extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        applyPublishedColor();
+
         if (drawingRect.width() <= 0 || drawingRect.height() <= 0) {
             return;
         }
-        drawSatValPanel(canvas);
-        drawHuePanel(canvas);
-        drawAlphaPanel(canvas);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            drawPanelLayer(canvas);
+            return;
+        }
+
+        // Only the panels inside the clip are drawn, on a software
+        // canvas that is just the region that has been invalidated.
+        if (!canvas.getClipBounds(clipRect)) {
+            return;
+        }
+
+        if (Rect.intersects(clipRect, satValBounds)) {
+            drawSatValPanel(canvas);
+        }
+        if (Rect.intersects(clipRect, hueBounds)) {
+            drawHuePanel(canvas);
+        }
+        if (showAlphaPanel && Rect.intersects(clipRect, alphaBounds)) {
+            drawAlphaPanel(canvas);
+        }
+    }
+
+    /*
+     * The panels only change with the hue or when something else
+     * than a tracker has changed, the trackers go on top.
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private void drawPanelLayer(Canvas canvas) {
+        if (panelNode == null) {
+            panelNode = new RenderNode("CustomPickerSelectorPanels");
+        }
+
+        final float hue = getPanelHue();
+        if (panelsDirty || panelNodeHue != hue || !panelNode.hasDisplayList()) {
+            panelNode.setPosition(0, 0, getWidth(), getHeight());
+            final RecordingCanvas recordingCanvas = panelNode.beginRecording(getWidth(), getHeight());
+            try {
+                drawSatValContent(recordingCanvas);
+                drawHueContent(recordingCanvas);
+            } finally {
+                panelNode.endRecording();
+            }
+            panelsDirty = false;
+            panelNodeHue = hue;
+        }
+
+        canvas.drawRenderNode(panelNode);
+        drawSatValTracker(canvas);
+        drawHueTracker(canvas);
+        if (showAlphaPanel) {
+            drawAlphaPanel(canvas);
+        }
+    }
+
+    /*
+     * Something else than a tracker has changed, the panels are recorded again.
+     */
+    private void invalidatePanels() {
+        panelsDirty = true;
+        invalidate();
     }
 
     @Override
@@ -342,11 +573,7 @@ public class CustomPickerSelector extends View {
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
 
-        drawingRect = new Rect();
-        drawingRect.left = getPaddingLeft();
-        drawingRect.right = w - getPaddingRight();
-        drawingRect.top = getPaddingTop();
-        drawingRect.bottom = h - getPaddingBottom();
+        drawingRect.set(getPaddingLeft(), getPaddingTop(), w - getPaddingRight(), h - getPaddingBottom());
 
         //The need to be recreated because they depend on the size of the view.
         valShader = null;
@@ -354,12 +581,89 @@ public class CustomPickerSelector extends View {
         alphaShader = null;
 
         // Clear those bitmap caches since the size may have changed.
-        satValBackgroundCache = null;
-        hueBackgroundCache = null;
+        releaseBitmapCaches();
+
+        setUpRects();
+    }
+
+    /*
+     * Let go of the bitmaps we show, they are shared so they stay in
+     * the cache for the other pickers. The ones for the new size are
+     * picked up the next time we draw.
+     */
+    private void releaseBitmapCaches() {
+        releaseSatValBitmap();
+
+        if (satValWhiteOverlay != null) {
+            SharedRenderCache.releaseSatValOverlay(satValWhiteOverlay);
+            satValWhiteOverlay = null;
+        }
+        if (satValBlackOverlay != null) {
+            SharedRenderCache.releaseSatValOverlay(satValBlackOverlay);
+            satValBlackOverlay = null;
+        }
+
+        if (hueStrip != null) {
+            SharedRenderCache.releaseHueStrip(hueStrip);
+            hueStrip = null;
+        }
+    }
+
+    private void releaseSatValBitmap() {
+        satValRenderWorker.cancel();
+        satValPendingHue = Float.NaN;
+        satValPreviewBitmap = null;
+        satValPreviewHue = Float.NaN;
+        if (satValBackgroundCache != null) {
+            if (satValBackgroundCache.bitmap != null) {
+                satValBitmapCache.unpin(satValBackgroundCache.bitmap);
+            }
+            satValBackgroundCache.bitmap = null;
+            satValBackgroundCache.value = Float.NaN;
+        }
+    }
 
+    /*
+     * Give up our share of the render caches, the last picker to do so frees them.
+     */
+    private void releaseSharedCaches() {
+        releaseBitmapCaches();
+        alphaPatternDrawable.releasePattern();
+        if (satValBitmapCache != null) {
+            SharedRenderCache.releaseSatValCache(satValBitmapCache);
+            satValBitmapCache = null;
+        }
+    }
+
+    private void setUpRects() {
+        panelsDirty = true;
         setUpSatValRect();
         setUpHueRect();
         setUpAlphaRect();
+
+        satValBounds.set(drawingRect.left, drawingRect.top, satValRect.right + BORDER_WIDTH_PX,
+                satValRect.bottom + BORDER_WIDTH_PX);
+        satValBounds.inset(-trackerOverhangPx, -trackerOverhangPx);
+        final float scale = getEffectiveRenderScale();
+        satValBitmapWidth = Math.max(1, Math.round(satValRect.width() * scale));
+        satValBitmapHeight = Math.max(1, Math.round(satValRect.height() * scale));
+        hueBounds.set(hueRect);
+        hueBounds.inset(-trackerOverhangPx, -trackerOverhangPx);
+        alphaBounds.set(alphaRect);
+        if (showAlphaPanel) {
+            alphaBounds.inset(-trackerOverhangPx, -trackerOverhangPx);
+        }
+    }
+
+    /*
+     * The gradients are smooth enough that one pixel per dp is plenty.
+     */
+    private float getEffectiveRenderScale() {
+        if (satValRenderScale > 0f) {
+            return Math.min(1f, satValRenderScale);
+        }
+        final float density = getResources().getDisplayMetrics().density;
+        return Math.max(MIN_RENDER_SCALE, Math.min(1f, 1f / density));
     }
 
     private void setUpHueRect() {
@@ -371,7 +675,7 @@ public class CustomPickerSelector extends View {
         int bottom = dRect.bottom - BORDER_WIDTH_PX - (showAlphaPanel ? (panelSpacingPx + alphaPanelHeightPx) : 0);
         int right = dRect.right - BORDER_WIDTH_PX;
 
-        hueRect = new Rect(left, top, right, bottom);
+        hueRect.set(left, top, right, bottom);
     }
 
     private void setUpSatValRect() {
@@ -387,12 +691,15 @@ public class CustomPickerSelector extends View {
             bottom -= (alphaPanelHeightPx + panelSpacingPx);
         }
 
-        satValRect = new Rect(left, top, right, bottom);
+        satValRect.set(left, top, right, bottom);
     }
 
     private void setUpAlphaRect() {
 
-        if (!showAlphaPanel) return;
+        if (!showAlphaPanel) {
+            alphaRect.setEmpty();
+            return;
+        }
 
         final Rect dRect = drawingRect;
 
@@ -401,14 +708,18 @@ public class CustomPickerSelector extends View {
         int bottom = dRect.bottom - BORDER_WIDTH_PX;
         int right = dRect.right - BORDER_WIDTH_PX;
 
-        alphaRect = new Rect(left, top, right, bottom);
+        alphaRect.set(left, top, right, bottom);
 
-        alphaPatternDrawable = new AlphaPatternDrawable(dpToPx(4));
         alphaPatternDrawable.setBounds(Math.round(alphaRect.left), Math.round(alphaRect.top), Math.round(alphaRect.right),
                 Math.round(alphaRect.bottom));
     }
 
     private void drawSatValPanel(Canvas canvas) {
+        drawSatValContent(canvas);
+        drawSatValTracker(canvas);
+    }
+
+    private void drawSatValContent(Canvas canvas) {
         final Rect rect = satValRect;
 
         if (BORDER_WIDTH_PX > 0) {
@@ -417,66 +728,254 @@ public class CustomPickerSelector extends View {
                     borderPaint);
         }
 
-        if (valShader == null) {
-            //Black gradient has either not been created or the view has been resized.
-            valShader =
-                    new LinearGradient(rect.left, rect.top, rect.left, rect.bottom, 0xffffffff, 0xff000000, TileMode.CLAMP);
+        // Hardware canvases can draw the composed gradients since Pie, no need for a bitmap there.
+        final boolean direct = satValHardwareShader && colorModel == ColorModels.HSV
+                && satValRenderMode != RenderMode.LAYERED && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && canvas.isHardwareAccelerated();
+        if (direct && !satValDrawnDirect) {
+            releaseSatValBitmap();
+            if (satValBitmapCache != null) {
+                SharedRenderCache.releaseSatValCache(satValBitmapCache);
+                satValBitmapCache = null;
+            }
         }
+        satValDrawnDirect = direct;
+
+        if (direct) {
+            drawSatValDirect(canvas, rect);
+        } else if (getEffectiveRenderMode() == RenderMode.LAYERED) {
+            drawSatValLayers(canvas, rect);
+        } else if (satValPreview) {
+            drawSatValPreview(canvas, rect);
+        } else {
+            drawSatValBitmap(canvas, rect);
+        }
+    }
+
+    private void drawSatValTracker(Canvas canvas) {
+        final Point p = applyPrediction(getSatValTrackerPoint(trackerPoint), satValRect);
 
+        satValTrackerPaint.setColor(0xff000000);
+        canvas.drawCircle(p.x, p.y, circleTrackerInnerRadiusPx, satValTrackerPaint);
+
+        satValTrackerPaint.setColor(0xffdddddd);
+        canvas.drawCircle(p.x, p.y, circleTrackerRadiusPx, satValTrackerPaint);
+    }
+
+    /*
+     * The same layers as drawSatValLayers but with gradients: the hue, white fading out
+     * to the right over it and black fading in to the bottom over that. The gradients
+     * only change with the size, a hue change is only the color of the fill.
+     */
+    private void drawSatValDirect(Canvas canvas, Rect rect) {
+        if (directValShader == null || !directShaderRect.equals(rect)) {
+            directSatShader = new LinearGradient(rect.left, rect.top, rect.right, rect.top, 0xffffffff, 0x00ffffff,
+                    TileMode.CLAMP);
+            directValShader = new LinearGradient(rect.left, rect.top, rect.left, rect.bottom, 0x00000000, 0xff000000,
+                    TileMode.CLAMP);
+            directShaderRect.set(rect);
+        }
+
+        satValHuePaint.setColor(HsvColor.HSVToColor(0xff, hsvColor.getHue(), 1f, 1f));
+        canvas.drawRect(rect, satValHuePaint);
+        satValPaint.setShader(directSatShader);
+        canvas.drawRect(rect, satValPaint);
+        satValPaint.setShader(directValShader);
+        canvas.drawRect(rect, satValPaint);
+    }
+
+    /*
+     * A fraction of the pixels of the full bitmap, rendered right away on every hue change
+     * while dragging and stretched over the panel. Not cached, it is only good for the drag.
+     */
+    private void drawSatValPreview(Canvas canvas, Rect rect) {
+        final int width = Math.max(1, satValBitmapWidth / PREVIEW_SCALE_DIVISOR);
+        final int height = Math.max(1, satValBitmapHeight / PREVIEW_SCALE_DIVISOR);
+        if (satValPreviewBitmap == null || satValPreviewBitmap.getWidth() != width
+                || satValPreviewBitmap.getHeight() != height) {
+            satValPreviewBitmap = Bitmap.createBitmap(width, height, getBitmapConfig());
+            satValPreviewHue = Float.NaN;
+        }
+
+        final float hue = getPanelHue();
+        if (satValPreviewHue != hue) {
+            getSatValRasterizer().render(satValPreviewBitmap, hue);
+            satValPreviewHue = hue;
+        }
+
+        canvas.drawBitmap(satValPreviewBitmap, null, rect, satValBitmapPaint);
+    }
+
+    private void endSatValPreview() {
+        removeCallbacks(satValPreviewEndRunnable);
+        if (satValPreview) {
+            satValPreview = false;
+            panelsDirty = true;
+            invalidate(satValBounds);
+        }
+    }
+
+    /*
+     * Nothing depends on the hue but the fill, a hue change is a rect
+     * and two bitmaps that have been rendered once for this size.
+     */
+    private void drawSatValLayers(Canvas canvas, Rect rect) {
+        if (satValWhiteOverlay == null || satValWhiteOverlay.getWidth() != rect.width()) {
+            if (satValWhiteOverlay != null) {
+                SharedRenderCache.releaseSatValOverlay(satValWhiteOverlay);
+            }
+            satValWhiteOverlay = SharedRenderCache.acquireSatValOverlay(rect.width(), false);
+        }
+        if (satValBlackOverlay == null || satValBlackOverlay.getHeight() != rect.height()) {
+            if (satValBlackOverlay != null) {
+                SharedRenderCache.releaseSatValOverlay(satValBlackOverlay);
+            }
+            satValBlackOverlay = SharedRenderCache.acquireSatValOverlay(rect.height(), true);
+        }
+
+        satValHuePaint.setColor(HsvColor.HSVToColor(0xff, hsvColor.getHue(), 1f, 1f));
+        canvas.drawRect(rect, satValHuePaint);
+        canvas.drawBitmap(satValWhiteOverlay, null, rect, satValBitmapPaint);
+        canvas.drawBitmap(satValBlackOverlay, null, rect, satValBitmapPaint);
+    }
+
+    private void drawSatValBitmap(Canvas canvas, Rect rect) {
         //If the hue has changed we need to recreate the cache.
+        final float hue = getPanelHue();
         if (satValBackgroundCache == null || satValBackgroundCache.value != hue) {
 
             if (satValBackgroundCache == null) {
                 satValBackgroundCache = new BitmapCache();
             }
 
-            //We create our bitmap in the cache if it doesn't exist.
-            if (satValBackgroundCache.bitmap == null) {
-                satValBackgroundCache.bitmap = Bitmap.createBitmap(rect.width(), rect.height(), Config.ARGB_8888);
+            // Bitmaps are kept for the hues we have already been at,
+            // only if this hue is new we need to render it.
+            final SatValBitmapCache cache = getSatValBitmapCache();
+            final float renderHue = cache.quantize(hue);
+            Bitmap bitmap = null;
+            if (renderHue != satValPendingHue) {
+                bitmap = cache.get(hue, satValBitmapWidth, satValBitmapHeight);
             }
 
-            //We create the canvas once so we can draw on our bitmap and the hold on to it.
-            if (satValBackgroundCache.canvas == null) {
-                satValBackgroundCache.canvas = new Canvas(satValBackgroundCache.bitmap);
+            if (bitmap == null && canRenderInBackground()) {
+                // The last bitmap is shown until the worker is done with this hue.
+                if (renderHue != satValPendingHue) {
+                    satValPendingHue = renderHue;
+                    satValRenderWorker.request(cache, renderHue, satValBitmapWidth, satValBitmapHeight);
+                }
+            } else if (bitmap == null) {
+                bitmap = cache.obtain(satValBitmapWidth, satValBitmapHeight);
+
+                if (getEffectiveRenderMode() == RenderMode.RASTER) {
+                    // Write the pixels directly, no need for a canvas or shaders.
+                    getSatValRasterizer().render(bitmap, renderHue);
+                } else {
+                    drawSatValShader(bitmap, renderHue);
+                }
+
+                // Another picker may have beaten us to it, show the one in the cache.
+                bitmap = cache.put(hue, bitmap);
+            }
+
+            if (bitmap != null) {
+                showSatValBitmap(bitmap, hue);
+            }
+        }
+
+        // We draw our bitmap from the cached, if the hue has changed
+        // then it was just recreated otherwise the old one will be used.
+        // Until the full bitmap for this hue is back from the worker the preview is closer.
+        Bitmap bitmap = satValBackgroundCache.bitmap;
+        if (satValBackgroundCache.value != hue && satValPreviewBitmap != null && satValPreviewHue == hue) {
+            bitmap = satValPreviewBitmap;
+        }
+        canvas.drawBitmap(bitmap, null, rect, satValBitmapPaint);
+    }
+
+    /*
+     * We can only render in the background if there is
+     * already a bitmap of the right size to show meanwhile.
+     */
+    private boolean canRenderInBackground() {
+        final Bitmap current = satValBackgroundCache.bitmap;
+        return satValBackgroundRender && getEffectiveRenderMode() == RenderMode.RASTER && current != null
+                && current.getWidth() == satValBitmapWidth && current.getHeight() == satValBitmapHeight;
+    }
+
+    private void showSatValBitmap(Bitmap bitmap, float hue) {
+        if (satValBackgroundCache.bitmap != bitmap) {
+            satValBitmapCache.pin(bitmap);
+            if (satValBackgroundCache.bitmap != null) {
+                satValBitmapCache.unpin(satValBackgroundCache.bitmap);
             }
+            satValBackgroundCache.bitmap = bitmap;
+        }
 
-            int rgb = Color.HSVToColor(new float[]{hue, 1f, 1f});
+        //We set the hue value in our cache to which hue it was drawn with,
+        //then we know that if it hasn't changed we can reuse our cached bitmap.
+        satValBackgroundCache.value = hue;
+    }
 
-            satShader = new LinearGradient(rect.left, rect.top, rect.right, rect.top, 0xffffffff, rgb, TileMode.CLAMP);
+    private void onSatValRendered(float hue, Bitmap bitmap) {
+        if (hue == satValPendingHue) {
+            satValPendingHue = Float.NaN;
+        }
 
-            ComposeShader mShader = new ComposeShader(valShader, satShader, PorterDuff.Mode.MULTIPLY);
-            satValPaint.setShader(mShader);
+        // The view may have been resized while rendering.
+        if (satValBackgroundCache == null || bitmap.getWidth() != satValBitmapWidth
+                || bitmap.getHeight() != satValBitmapHeight) {
+            satValBitmapCache.release(bitmap);
+            return;
+        }
 
-            // Finally we draw on our canvas, the result will be
-            // stored in our bitmap which is already in the cache.
-            // Since this is drawn on a canvas not rendered on
-            // screen it will automatically not be using the
-            // hardware acceleration. And this was the code that
-            // wasn't supported by hardware acceleration which mean
-            // there is no need to turn it of anymore. The rest of
-            // the view will still be hw accelerated.
-            satValBackgroundCache.canvas.drawRect(0, 0, satValBackgroundCache.bitmap.getWidth(),
-                    satValBackgroundCache.bitmap.getHeight(), satValPaint);
+        // Swap the new bitmap in, even if the hue has moved on since,
+        // it is still closer than the one on screen.
+        showSatValBitmap(satValBitmapCache.put(hue, bitmap), hue);
+        panelsDirty = true;
+        invalidate(satValBounds);
+    }
 
-            //We set the hue value in our cache to which hue it was drawn with,
-            //then we know that if it hasn't changed we can reuse our cached bitmap.
-            satValBackgroundCache.value = hue;
+    /*
+     * Fallback for the rasterizer, draws the sat/val field
+     * with a composition of two gradients.
+     */
+    private void drawSatValShader(Bitmap bitmap, float hue) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        if (valShader == null) {
+            //Black gradient has either not been created or the view has been resized.
+            valShader = new LinearGradient(0, 0, 0, height, 0xffffffff, 0xff000000, TileMode.CLAMP);
         }
 
-        // We draw our bitmap from the cached, if the hue has changed
-        // then it was just recreated otherwise the old one will be used.
-        canvas.drawBitmap(satValBackgroundCache.bitmap, null, rect, null);
+        //We create the canvas once so we can draw on our bitmaps and the hold on to it.
+        if (satValBackgroundCache.canvas == null) {
+            satValBackgroundCache.canvas = new Canvas();
+        }
+        satValBackgroundCache.canvas.setBitmap(bitmap);
 
-        Point p = satValToPoint(sat, val);
+        int rgb = HsvColor.HSVToColor(0xff, hue, 1f, 1f);
 
-        satValTrackerPaint.setColor(0xff000000);
-        canvas.drawCircle(p.x, p.y, circleTrackerRadiusPx - dpToPx(1), satValTrackerPaint);
+        satShader = new LinearGradient(0, 0, width, 0, 0xffffffff, rgb, TileMode.CLAMP);
 
-        satValTrackerPaint.setColor(0xffdddddd);
-        canvas.drawCircle(p.x, p.y, circleTrackerRadiusPx, satValTrackerPaint);
+        ComposeShader mShader = new ComposeShader(valShader, satShader, PorterDuff.Mode.MULTIPLY);
+        satValPaint.setShader(mShader);
+
+        // Finally we draw on our canvas, the result will be
+        // stored in our bitmap which is already in the cache.
+        // Since this is drawn on a canvas not rendered on
+        // screen it will automatically not be using the
+        // hardware acceleration. And this was the code that
+        // wasn't supported by hardware acceleration which mean
+        // there is no need to turn it of anymore. The rest of
+        // the view will still be hw accelerated.
+        satValBackgroundCache.canvas.drawRect(0, 0, width, height, satValPaint);
     }
 
     private void drawHuePanel(Canvas canvas) {
+        drawHueContent(canvas);
+        drawHueTracker(canvas);
+    }
+
+    private void drawHueContent(Canvas canvas) {
         final Rect rect = hueRect;
 
         if (BORDER_WIDTH_PX > 0) {
@@ -486,36 +985,23 @@ public class CustomPickerSelector extends View {
                     rect.bottom + BORDER_WIDTH_PX, borderPaint);
         }
 
-        if (hueBackgroundCache == null) {
-            hueBackgroundCache = new BitmapCache();
-            hueBackgroundCache.bitmap = Bitmap.createBitmap(rect.width(), rect.height(), Config.ARGB_8888);
-            hueBackgroundCache.canvas = new Canvas(hueBackgroundCache.bitmap);
-
-            int[] hueColors = new int[(int) (rect.height() + 0.5f)];
-
-            // Generate array of all colors, will be drawn as individual lines.
-            float h = 360f;
-            for (int i = 0; i < hueColors.length; i++) {
-                hueColors[i] = Color.HSVToColor(new float[]{h, 1f, 1f});
-                h -= 360f / hueColors.length;
-            }
-
-            // Time to draw the hue color gradient,
-            // its drawn as individual lines which
-            // will be quite many when the resolution is high
-            // and/or the panel is large.
-            Paint linePaint = new Paint();
-            linePaint.setStrokeWidth(0);
-            for (int i = 0; i < hueColors.length; i++) {
-                linePaint.setColor(hueColors[i]);
-                hueBackgroundCache.canvas.drawLine(0, i, hueBackgroundCache.bitmap.getWidth(), i, linePaint);
+        if (hueStrip == null || hueStrip.getHeight() != rect.height()) {
+            if (hueStrip != null) {
+                SharedRenderCache.releaseHueStrip(hueStrip);
             }
+            hueStrip = SharedRenderCache.acquireHueStrip(rect.height(), getBitmapConfig(), colorModel);
         }
 
-        canvas.drawBitmap(hueBackgroundCache.bitmap, null, rect, null);
-        Point p = hueToPoint(hue);
+        // Every column is the same, the one pixel wide strip
+        // is stretched over the whole width of the panel.
+        canvas.drawBitmap(hueStrip, null, rect, null);
+    }
 
-        RectF r = new RectF();
+    private void drawHueTracker(Canvas canvas) {
+        final Rect rect = hueRect;
+        final Point p = applyPrediction(hueToPoint(getPanelHue(), trackerPoint), rect);
+
+        final RectF r = trackerRect;
         r.left = rect.left - sliderTrackerOffsetPx;
         r.right = rect.right + sliderTrackerOffsetPx;
         r.top = p.y - (sliderTrackerSizePx / 2);
@@ -527,10 +1013,11 @@ public class CustomPickerSelector extends View {
     /*
      * Will be drawn with hw acceleration, very fast.
      * Also the AlphaPatternDrawable is backed by a bitmap
-     * generated only once if the size does not change.
+     * generated only once if the size does not change
+     * and the gradient is kept until the color changes.
      */
     private void drawAlphaPanel(Canvas canvas) {
-        if (!showAlphaPanel || alphaRect == null || alphaPatternDrawable == null) return;
+        if (!showAlphaPanel) return;
 
         final Rect rect = alphaRect;
 
@@ -542,24 +1029,28 @@ public class CustomPickerSelector extends View {
 
         alphaPatternDrawable.draw(canvas);
 
-        float[] hsv = new float[]{hue, sat, val};
-        int color = Color.HSVToColor(hsv);
-        int acolor = Color.HSVToColor(0, hsv);
+        // The gradient only depends on the opaque color, it
+        // is only created again if that color has changed.
+        final int color = HsvColor.HSVToColor(0xff, hsvColor.getHue(), hsvColor.getSat(), hsvColor.getVal());
+        if (alphaShader == null || alphaShaderColor != color) {
+            int acolor = color & 0x00ffffff;
 
-        alphaShader = new LinearGradient(rect.left, rect.top, rect.right, rect.top, color, acolor, TileMode.CLAMP);
+            alphaShader = new LinearGradient(rect.left, rect.top, rect.right, rect.top, color, acolor, TileMode.CLAMP);
+            alphaShaderColor = color;
 
-        alphaPaint.setShader(alphaShader);
+            alphaPaint.setShader(alphaShader);
+        }
 
         canvas.drawRect(rect, alphaPaint);
 
-        if (alphaSliderText != null && !alphaSliderText.equals("")) {
-            canvas.drawText(alphaSliderText, rect.centerX(), rect.centerY() + dpToPx(4),
+        if (alphaSliderText != null && !alphaSliderText.isEmpty()) {
+            canvas.drawText(alphaSliderText, rect.centerX(), rect.centerY() + alphaTextOffsetPx,
                     alphaTextPaint);
         }
 
-        Point p = alphaToPoint(alpha);
+        final Point p = applyPrediction(alphaToPoint(hsvColor.getAlpha(), trackerPoint), rect);
 
-        RectF r = new RectF();
+        final RectF r = trackerRect;
         r.left = p.x - (sliderTrackerSizePx / 2);
         r.right = p.x + (sliderTrackerSizePx / 2);
         r.top = rect.top - sliderTrackerOffsetPx;
@@ -568,50 +1059,64 @@ public class CustomPickerSelector extends View {
         canvas.drawRoundRect(r, 2, 2, hueAlphaTrackerPaint);
     }
 
-    private Point hueToPoint(float hue) {
+    /*
+     * The predicted position replaces the real one for the tracker of the panel being dragged.
+     */
+    private Point applyPrediction(Point p, Rect panel) {
+        if (predictedPanel == panel) {
+            p.set(predictedPoint.x, predictedPoint.y);
+        }
+        return p;
+    }
+
+    private Point hueToPoint(float hue, Point p) {
 
         final Rect rect = hueRect;
         final float height = rect.height();
 
-        Point p = new Point();
-
         p.y = (int) (height - (hue * height / 360f) + rect.top);
         p.x = rect.left;
 
         return p;
     }
 
-    private Point satValToPoint(float sat, float val) {
+    private Point satValToPoint(float sat, float val, Point p) {
 
         final Rect rect = satValRect;
         final float height = rect.height();
         final float width = rect.width();
 
-        Point p = new Point();
-
         p.x = (int) (sat * width + rect.left);
         p.y = (int) ((1f - val) * height + rect.top);
 
         return p;
     }
 
-    private Point alphaToPoint(int alpha) {
+    private Point getSatValTrackerPoint(Point p) {
+        if (colorModel == ColorModels.HSV) {
+            return satValToPoint(hsvColor.getSat(), hsvColor.getVal(), p);
+        }
+
+        // A color past the gamut is shown on its edge.
+        System.arraycopy(modelComponents, 0, trackerComponents, 0, 3);
+        colorModel.clampToGamut(trackerComponents);
+        return satValToPoint(trackerComponents[ColorModel.X], trackerComponents[ColorModel.Y], p);
+    }
+
+    private Point alphaToPoint(int alpha, Point p) {
 
         final Rect rect = alphaRect;
         final float width = rect.width();
 
-        Point p = new Point();
-
         p.x = (int) (width - (alpha * width / 0xff) + rect.left);
         p.y = rect.top;
 
         return p;
     }
 
-    private float[] pointToSatVal(float x, float y) {
+    private boolean pointToSatVal(float x, float y) {
 
         final Rect rect = satValRect;
-        float[] result = new float[2];
 
         float width = rect.width();
         float height = rect.height();
@@ -632,10 +1137,20 @@ public class CustomPickerSelector extends View {
             y = y - rect.top;
         }
 
-        result[0] = 1.f / width * x;
-        result[1] = 1.f - (1.f / height * y);
+        if (colorModel != ColorModels.HSV) {
+            final float oldX = modelComponents[ColorModel.X];
+            final float oldY = modelComponents[ColorModel.Y];
+            modelComponents[ColorModel.X] = 1.f / width * x;
+            modelComponents[ColorModel.Y] = 1.f - (1.f / height * y);
+            // Out of the gamut is masked, the tracker stops on its edge.
+            colorModel.clampToGamut(modelComponents);
+            if (modelComponents[ColorModel.X] == oldX && modelComponents[ColorModel.Y] == oldY) {
+                return false;
+            }
+            return applyModel();
+        }
 
-        return result;
+        return hsvColor.setSatVal(1.f / width * x, 1.f - (1.f / height * y));
     }
 
     private float pointToHue(float y) {
@@ -673,41 +1188,176 @@ public class CustomPickerSelector extends View {
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        boolean update = false;
+        boolean handled = false;
 
-        switch (event.getAction()) {
+        switch (event.getActionMasked()) {
 
             case MotionEvent.ACTION_DOWN:
-                startTouchPoint = new Point((int) event.getX(), (int) event.getY());
-                update = moveTrackersIfNeeded(event);
+                cancelColorAnimation();
+                startTouchPoint.set((int) event.getX(), (int) event.getY());
+                tracking = true;
+                if (lowLatencyInput && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                    // Get every move as it comes instead of once per frame.
+                    requestUnbufferedDispatch(event);
+                }
+                predictTracker(event);
+                handled = isTouchOnPanel();
+                colorChangePending |= moveTrackersIfNeeded(event);
+                // The first touch is shown right away.
+                dispatchColorChanged();
                 break;
             case MotionEvent.ACTION_MOVE:
-                update = moveTrackersIfNeeded(event);
+                handled = isTouchOnPanel();
+                final boolean predictionMoved = predictTracker(event);
+                if (moveTrackersIfNeeded(event)) {
+                    // Several moves can come in one frame, only the last one is published.
+                    colorChangePending = true;
+                    scheduleColorChanged();
+                } else if (predictionMoved || !dirtyRect.isEmpty()) {
+                    // Same color, but a tracker or the predicted one is drawn somewhere else.
+                    scheduleColorChanged();
+                }
                 break;
             case MotionEvent.ACTION_UP:
-                startTouchPoint = null;
-                update = moveTrackersIfNeeded(event);
+                handled = isTouchOnPanel();
+                colorChangePending |= moveTrackersIfNeeded(event);
+                endPrediction();
+                tracking = false;
+                dispatchColorChanged();
+                if (handled) {
+                    colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+                }
                 break;
+            case MotionEvent.ACTION_CANCEL:
+                handled = isTouchOnPanel();
+                endPrediction();
+                tracking = false;
+                if (satValBitmapCache != null) {
+                    satValBitmapCache.cancelPrefetch();
+                }
+                endSatValPreview();
+                dispatchColorChanged();
+                if (handled) {
+                    colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+                }
+                break;
+        }
+
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelColorAnimation();
+        satValPreview = false;
+        removeCallbacks(satValPreviewEndRunnable);
+        releaseSharedCaches();
+        if (panelNode != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            panelNode.discardDisplayList();
+        }
+        if (colorChangeScheduled) {
+            Choreographer.getInstance().removeFrameCallback(colorChangeFrameCallback);
+            colorChangeScheduled = false;
+        }
+    }
+
+    private void scheduleColorChanged() {
+        if (!colorChangeScheduled) {
+            colorChangeScheduled = true;
+            Choreographer.getInstance().postFrameCallback(colorChangeFrameCallback);
+        }
+    }
+
+    /*
+     * Publish the pending color change now, if there is one.
+     */
+    private void dispatchColorChanged() {
+        if (colorChangeScheduled) {
+            Choreographer.getInstance().removeFrameCallback(colorChangeFrameCallback);
+            colorChangeScheduled = false;
         }
 
-        if (update) {
-            if (onColorChangedListener != null) {
-                onColorChangedListener.onColorChanged(Color.HSVToColor(alpha, new float[]{hue, sat, val}));
+        if (!colorChangePending) {
+            // A tracker can still have moved without changing the color, like one that was predicted.
+            if (!dirtyRect.isEmpty()) {
+                invalidateDirtyRegion();
             }
-            invalidate();
-            return true;
+            return;
         }
+        colorChangePending = false;
+
+        notifyColorChanged();
+        colorChangeDispatcher.onColorChanged(hsvColor.getColor());
+        invalidateDirtyRegion();
+    }
 
-        return super.onTouchEvent(event);
+    private void notifyColorChanged() {
+        if (onColorChangedListener != null) {
+            onColorChangedListener.onColorChanged(hsvColor.getColor());
+        }
+        if (onHsvColorChangedListener != null) {
+            onHsvColorChangedListener.onColorChanged(hsvColor.getHue(), hsvColor.getSat(), hsvColor.getVal(),
+                    hsvColor.getAlpha());
+        }
+    }
+
+    /*
+     * Invalidate only what has changed since the last time. A hardware
+     * accelerated view replays the recorded panels and draws the trackers
+     * on top, a software rendered one only has to draw the panels in the
+     * dirty region.
+     */
+    private void invalidateDirtyRegion() {
+        if (dirtyRect.isEmpty()) {
+            invalidatePanels();
+        } else {
+            invalidate(dirtyRect);
+            dirtyRect.setEmpty();
+        }
+    }
+
+    private void addSatValTrackerBounds(Rect out) {
+        final Point p = getSatValTrackerPoint(trackerPoint);
+        final int r = circleTrackerRadiusPx + trackerStrokeWidthPx;
+        out.union(p.x - r, p.y - r, p.x + r, p.y + r);
+    }
+
+    private void addAlphaTrackerBounds(Rect out) {
+        final Point p = alphaToPoint(hsvColor.getAlpha(), trackerPoint);
+        out.union(p.x - trackerOverhangPx, alphaBounds.top, p.x + trackerOverhangPx, alphaBounds.bottom);
     }
 
     /**
-     * Get the current color this view is showing.
+     * Get the current color this view is showing, or the one waiting to be
+     * applied on the main thread if it has been set from another thread.
      *
      * @return the current color.
      */
     public int getColor() {
-        return Color.HSVToColor(alpha, new float[]{hue, sat, val});
+        final long published = publishedColor.get();
+        if ((published & PUBLISHED) != 0) {
+            return (int) published;
+        }
+        return hsvColor.getColor();
+    }
+
+    /**
+     * Get the current color as HSV without converting it, the view holds the color that way.
+     *
+     * @param hsv filled with the hue (0 - 360), saturation (0 - 1) and value (0 - 1),
+     *            and the alpha (0 - 255) if it has a fourth element
+     * @return the same array
+     */
+    public float[] getColorHsv(float[] hsv) {
+        applyPublishedColorNow();
+        hsv[0] = hsvColor.getHue();
+        hsv[1] = hsvColor.getSat();
+        hsv[2] = hsvColor.getVal();
+        if (hsv.length > 3) {
+            hsv[3] = hsvColor.getAlpha();
+        }
+        return hsv;
     }
 
     /**
@@ -720,32 +1370,182 @@ public class CustomPickerSelector extends View {
     }
 
     /**
-     * Set the color this view should show.
+     * Set the color this view should show. Can be called from any thread, from another thread
+     * than the main one the color is applied on the main thread, whether the view is drawn or not,
+     * and only the latest color set before that is kept. The callback is then made on the main thread.
      *
      * @param color    The color that should be selected. #argb
      * @param callback If you want to get a callback to your OnColorChangedListener.
      */
     public void setColor(int color, boolean callback) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            publishColor(color, callback);
+            return;
+        }
 
-        int alpha = Color.alpha(color);
-        int red = Color.red(color);
-        int blue = Color.blue(color);
-        int green = Color.green(color);
+        // Set on the main thread after it, the waiting color is older.
+        publishedColor.set(0);
+        cancelColorAnimation();
+        hsvColor.setColor(color);
+        syncModel();
 
-        float[] hsv = new float[3];
+        if (callback) {
+            notifyColorChanged();
+            colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+        }
 
-        Color.RGBToHSV(red, green, blue, hsv);
+        invalidatePanels();
+    }
 
-        this.alpha = alpha;
-        hue = hsv[0];
-        sat = hsv[1];
-        val = hsv[2];
+    /*
+     * Swap the color in without locking. A callback asked for by a color
+     * that gets replaced before the frame is still made with the latest one.
+     */
+    private void publishColor(int color, boolean callback) {
+        final long next = (color & 0xffffffffL) | PUBLISHED | (callback ? PUBLISHED_CALLBACK : 0);
+        long previous;
+        do {
+            previous = publishedColor.get();
+        } while (!publishedColor.compareAndSet(previous, next | (previous & PUBLISHED_CALLBACK)));
+
+        // Only the first color since the last one was applied has to be posted.
+        if ((previous & PUBLISHED) == 0) {
+            mainHandler.post(publishedColorRunnable);
+        }
+    }
 
-        if (callback && onColorChangedListener != null) {
-            onColorChangedListener.onColorChanged(Color.HSVToColor(this.alpha, new float[]{hue, sat, val}));
+    /*
+     * Apply the color waiting from another thread outside of a draw, a no-op off the main thread.
+     */
+    private void applyPublishedColorNow() {
+        if (Looper.myLooper() == Looper.getMainLooper() && applyPublishedColor()) {
+            invalidatePanels();
         }
+    }
 
-        invalidate();
+    private boolean applyPublishedColor() {
+        final long published = publishedColor.getAndSet(0);
+        if ((published & PUBLISHED) == 0) {
+            return false;
+        }
+
+        cancelColorAnimation();
+        hsvColor.setColor((int) published);
+        syncModel();
+        panelsDirty = true;
+
+        // Not from within the draw, the listeners may change the view.
+        if ((published & PUBLISHED_CALLBACK) != 0) {
+            mainHandler.post(publishedColorCallback);
+        }
+        return true;
+    }
+
+    /**
+     * Animate to a color, see {@link #animateToColor(int, long, TimeInterpolator, boolean)}.
+     * The listeners are only told about the final color.
+     */
+    public void animateToColor(int color, long duration, @Nullable TimeInterpolator interpolator) {
+        animateToColor(color, duration, interpolator, false);
+    }
+
+    /**
+     * Animate to a color in HSV, the hue going the shortest way around, on the frame clock.
+     * The final color is set exactly and delivered like {@link #setColor(int, boolean)} with a callback.
+     * A touch or another color being set cancels the animation where it is.
+     *
+     * @param color              The color to end on. #argb
+     * @param duration           the duration in milliseconds
+     * @param interpolator       the interpolator or null for a linear animation
+     * @param notifyIntermediate {@code true} if the listeners should see every frame of the animation
+     */
+    public void animateToColor(int color, long duration, @Nullable TimeInterpolator interpolator,
+            boolean notifyIntermediate) {
+        cancelColorAnimation();
+
+        animationFromAlpha = hsvColor.getAlpha();
+        animationFromHue = hsvColor.getHue();
+        animationFromSat = hsvColor.getSat();
+        animationFromVal = hsvColor.getVal();
+
+        // A gray target keeps the hue, so it doesn't go around for nothing.
+        animationTarget.set(animationFromAlpha, animationFromHue, animationFromSat, animationFromVal);
+        animationTarget.setColor(color);
+        float delta = animationTarget.getHue() - animationFromHue;
+        if (delta > 180f) {
+            delta -= 360f;
+        } else if (delta < -180f) {
+            delta += 360f;
+        }
+        animationHueDelta = delta;
+        animationToColor = color;
+
+        animationInterpolator = interpolator;
+        animationNotifyIntermediate = notifyIntermediate;
+        animationDurationNanos = Math.max(0, duration) * 1000000L;
+        animationStartNanos = -1;
+        animating = true;
+        Choreographer.getInstance().postFrameCallback(animationFrameCallback);
+    }
+
+    /**
+     * Stop the running color animation, if any, on the color it has reached.
+     */
+    public void cancelColorAnimation() {
+        if (animating) {
+            animating = false;
+            Choreographer.getInstance().removeFrameCallback(animationFrameCallback);
+        }
+    }
+
+    private void onAnimationFrame(long frameTimeNanos) {
+        if (!animating) {
+            return;
+        }
+
+        // The animation starts on the first frame it is part of.
+        if (animationStartNanos < 0) {
+            animationStartNanos = frameTimeNanos;
+        }
+
+        final long elapsed = frameTimeNanos - animationStartNanos;
+        if (elapsed >= animationDurationNanos) {
+            animating = false;
+            hsvColor.setColor(animationToColor);
+            syncModel();
+            notifyColorChanged();
+            colorChangeDispatcher.onColorCommitted(hsvColor.getColor());
+            invalidate();
+            return;
+        }
+
+        float fraction = (float) elapsed / animationDurationNanos;
+        if (animationInterpolator != null) {
+            fraction = animationInterpolator.getInterpolation(fraction);
+        }
+
+        float hue = animationFromHue + animationHueDelta * fraction;
+        if (hue < 0f) {
+            hue += 360f;
+        } else if (hue >= 360f) {
+            hue -= 360f;
+        }
+        final int alpha = Math.round(animationFromAlpha + (animationTarget.getAlpha() - animationFromAlpha) * fraction);
+        final float sat = animationFromSat + (animationTarget.getSat() - animationFromSat) * fraction;
+        final float val = animationFromVal + (animationTarget.getVal() - animationFromVal) * fraction;
+
+        // Interpolators may overshoot, the trackers stay in their panels.
+        if (hsvColor.set(Math.max(0, Math.min(0xff, alpha)), hue, Math.max(0f, Math.min(1f, sat)),
+                Math.max(0f, Math.min(1f, val)))) {
+            syncModel();
+            if (animationNotifyIntermediate) {
+                notifyColorChanged();
+                colorChangeDispatcher.onColorChanged(hsvColor.getColor());
+            }
+            invalidate();
+        }
+
+        Choreographer.getInstance().postFrameCallback(animationFrameCallback);
     }
 
     /**
@@ -764,13 +1564,251 @@ public class CustomPickerSelector extends View {
             valShader = null;
             satShader = null;
             alphaShader = null;
-            hueBackgroundCache = null;
-            satValBackgroundCache = null;
+            releaseBitmapCaches();
 
+            // The panels are moved in place, the new size
+            // will follow in onSizeChanged if it changes.
+            setUpRects();
             requestLayout();
         }
     }
 
+    /**
+     * Set how the saturation / value panel is rendered. {@link RenderMode#RASTER} writes
+     * the pixels directly and is the default, {@link RenderMode#SHADER} draws them with gradients.
+     * {@link RenderMode#LAYERED} draws the hue with a white and a black layer over it, which
+     * don't depend on the hue, so nothing is rendered again while the hue changes.
+     *
+     * @param mode the render mode
+     */
+    public void setSatValRenderMode(@RenderMode int mode) {
+        if (satValRenderMode != mode) {
+            satValRenderMode = mode;
+
+            // Both modes render the same bitmaps, the ones in the shared cache can stay.
+            satValRenderWorker.cancel();
+            satValPendingHue = Float.NaN;
+            if (satValBackgroundCache != null) {
+                satValBackgroundCache.value = Float.NaN;
+            }
+
+            invalidatePanels();
+        }
+    }
+
+    /**
+     * Set if a new saturation / value panel is rendered on a background thread
+     * while the last one stays on screen. Default is true, only used with
+     * {@link RenderMode#RASTER}.
+     *
+     * @param enabled {@code false} to render on the main thread while drawing
+     */
+    public void setSatValBackgroundRender(boolean enabled) {
+        satValBackgroundRender = enabled;
+    }
+
+    /**
+     * Set the resolution of the saturation / value bitmap relative to the size of the panel.
+     * The bitmap is drawn filtered so a lower scale stays smooth, while it takes the square
+     * of the scale in memory and time to render. Default is 1, full resolution.
+     *
+     * @param scale a fraction of the panel size up to 1, or {@link #RENDER_SCALE_AUTO}
+     *              for one pixel per dp
+     */
+    public void setSatValRenderScale(float scale) {
+        if (satValRenderScale != scale) {
+            satValRenderScale = scale;
+            valShader = null;
+            releaseBitmapCaches();
+            setUpRects();
+            invalidatePanels();
+        }
+    }
+
+    /**
+     * Get the resolution of the saturation / value bitmap relative to the size of the panel.
+     *
+     * @return the scale or {@link #RENDER_SCALE_AUTO}
+     */
+    public float getSatValRenderScale() {
+        return satValRenderScale;
+    }
+
+    /**
+     * Set the config of the cached panel bitmaps. {@link CacheConfig#RGB_565} takes half the
+     * memory of the default {@link CacheConfig#ARGB_8888}, the gradients are dithered so they don't band.
+     *
+     * @param config the bitmap config
+     */
+    public void setCacheConfig(@CacheConfig int config) {
+        if (cacheConfig != config) {
+            cacheConfig = config;
+            releaseBitmapCaches();
+            applyCacheConfig();
+            invalidatePanels();
+        }
+    }
+
+    /**
+     * Get the config of the cached panel bitmaps.
+     *
+     * @return the bitmap config
+     */
+    @CacheConfig
+    public int getCacheConfig() {
+        return cacheConfig;
+    }
+
+    private void applyCacheConfig() {
+        final Bitmap.Config config = getBitmapConfig();
+        if (satValBitmapCache != null && satValBitmapCache.getConfig() != config) {
+            SharedRenderCache.releaseSatValCache(satValBitmapCache);
+            satValBitmapCache = null;
+        }
+        alphaPatternDrawable.setBitmapConfig(config);
+
+        // Let the shader fallback dither its gradients too.
+        satValPaint.setDither(cacheConfig == CacheConfig.RGB_565);
+    }
+
+    private Bitmap.Config getBitmapConfig() {
+        return cacheConfig == CacheConfig.RGB_565 ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+    }
+
+    /**
+     * Set if the saturation / value gradients are drawn straight to the canvas when it is
+     * hardware accelerated on Pie and later, instead of through a cached bitmap. Default is true,
+     * not used with {@link RenderMode#LAYERED}.
+     *
+     * @param enabled {@code false} to always go through the bitmap cache
+     */
+    public void setSatValHardwareShader(boolean enabled) {
+        if (satValHardwareShader != enabled) {
+            satValHardwareShader = enabled;
+            invalidatePanels();
+        }
+    }
+
+    /**
+     * Set if a coarse saturation / value panel is shown while the hue is dragged, at a quarter
+     * of the resolution. The full resolution is rendered once when the drag ends or pauses.
+     * Default is false, not used with {@link RenderMode#LAYERED} or the hardware shader.
+     *
+     * @param enabled {@code true} to show the preview while dragging
+     */
+    public void setSatValProgressive(boolean enabled) {
+        satValProgressive = enabled;
+        if (!enabled) {
+            endSatValPreview();
+        }
+    }
+
+    /**
+     * Set the low latency input mode. Touch events are delivered as they come instead of once
+     * per frame and the dragged tracker is drawn where the finger is expected to be a frame later.
+     * The color always comes from the real touch positions. Default is false.
+     *
+     * @param enabled {@code true} for the low latency mode
+     */
+    public void setLowLatencyInput(boolean enabled) {
+        lowLatencyInput = enabled;
+        if (!enabled) {
+            endPrediction();
+        }
+    }
+
+    /**
+     * Set the color space the panels pick in, one of the models in {@link ColorModels}.
+     * {@link PickerColorSpace#OKLCH} is perceptually even: the hue panel picks the OKLCH hue
+     * and the big panel the chroma across and the lightness down, with what is out of
+     * the sRGB gamut masked. {@link PickerColorSpace#LAB} has the lightness on the slider instead.
+     *
+     * @param colorSpace the color space
+     * @see #setColorModel(ColorModel)
+     */
+    public void setColorSpace(@PickerColorSpace int colorSpace) {
+        setColorModel(ColorModels.forColorSpace(colorSpace));
+    }
+
+    /**
+     * Set the model the panels pick in, {@link ColorModels#HSV} is the default. The slider
+     * picks the first component of the model and the big panel the other two.
+     * Other models than HSV are always rasterized, the render mode is ignored.
+     * The color is kept and so are the listeners, which still get HSV.
+     *
+     * @param model one of {@link ColorModels} or an own implementation, kept for the life of the process
+     */
+    public void setColorModel(ColorModel model) {
+        if (colorModel != model) {
+            // The bitmaps of the old model stay in its cache for the other pickers.
+            releaseBitmapCaches();
+            if (satValBitmapCache != null) {
+                SharedRenderCache.releaseSatValCache(satValBitmapCache);
+                satValBitmapCache = null;
+            }
+            satValRasterizer = null;
+
+            colorModel = model;
+            syncModel();
+            invalidatePanels();
+        }
+    }
+
+    /**
+     * Get the color space the panels pick in.
+     *
+     * @return the color space, {@link PickerColorSpace#HSV} for a model that is not one of {@link ColorModels}
+     */
+    @PickerColorSpace
+    public int getColorSpace() {
+        if (colorModel == ColorModels.OKLCH) {
+            return PickerColorSpace.OKLCH;
+        } else if (colorModel == ColorModels.HSL) {
+            return PickerColorSpace.HSL;
+        } else if (colorModel == ColorModels.HWB) {
+            return PickerColorSpace.HWB;
+        } else if (colorModel == ColorModels.LAB) {
+            return PickerColorSpace.LAB;
+        }
+        return PickerColorSpace.HSV;
+    }
+
+    /**
+     * Get the model the panels pick in.
+     *
+     * @return the color model
+     */
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    /**
+     * Get the components of the current color in the model of the picker, for HSV the hue,
+     * saturation and value. See {@link ColorModel} for the meaning of each.
+     *
+     * @param components filled with the slider, x and y components
+     */
+    public void getColorComponents(float[] components) {
+        applyPublishedColorNow();
+        if (colorModel == ColorModels.HSV) {
+            components[ColorModel.SLIDER] = hsvColor.getHue();
+            components[ColorModel.X] = hsvColor.getSat();
+            components[ColorModel.Y] = hsvColor.getVal();
+        } else {
+            System.arraycopy(modelComponents, 0, components, 0, 3);
+        }
+    }
+
+    /**
+     * Get how the saturation / value panel is rendered.
+     *
+     * @return the render mode
+     */
+    @RenderMode
+    public int getSatValRenderMode() {
+        return satValRenderMode;
+    }
+
     /**
      * Get color of the tracker slider on the hue and alpha panel.
      *
@@ -788,7 +1826,7 @@ public class CustomPickerSelector extends View {
     public void setSliderTrackerColor(int color) {
         sliderTrackerColor = color;
         hueAlphaTrackerPaint.setColor(sliderTrackerColor);
-        invalidate();
+        invalidatePanels();
     }
 
     /**
@@ -805,7 +1843,7 @@ public class CustomPickerSelector extends View {
      */
     public void setBorderColor(int color) {
         borderColor = color;
-        invalidate();
+        invalidatePanels();
     }
 
     /**
@@ -838,7 +1876,7 @@ public class CustomPickerSelector extends View {
      */
     public void setAlphaSliderText(String text) {
         alphaSliderText = text;
-        invalidate();
+        invalidatePanels();
     }
 
     /**
@@ -851,8 +1889,152 @@ public class CustomPickerSelector extends View {
         onColorChangedListener = listener;
     }
 
+    /**
+     * Set a OnHsvColorChangedListener to get notified when the color
+     * selected by the user has changed, as the HSV components the view holds.
+     *
+     * @param listener the listener
+     */
+    public void setOnHsvColorChangedListener(@Nullable OnHsvColorChangedListener listener) {
+        onHsvColorChangedListener = listener;
+    }
+
+    /**
+     * Set a OnColorSelectionListener to get notified while the user
+     * changes the color and once more when the touch is released.
+     * How often the changes are delivered can be limited with
+     * {@link #setColorChangeMaxRate(int)} or {@link #setColorChangeDebounce(long)}.
+     *
+     * @param listener the listener
+     */
+    public void setOnColorSelectionListener(@Nullable OnColorSelectionListener listener) {
+        colorChangeDispatcher.setListener(listener);
+    }
+
+    /**
+     * Set the maximum number of times per second the OnColorSelectionListener
+     * is told about changes while dragging. The last change is always delivered.
+     *
+     * @param perSecond the maximum rate, 0 to be told on every frame
+     */
+    public void setColorChangeMaxRate(int perSecond) {
+        colorChangeDispatcher.setMaxRate(perSecond);
+    }
+
+    /**
+     * Only tell the OnColorSelectionListener about a change once
+     * the color has not changed for the given time.
+     *
+     * @param ms the time in milliseconds, 0 to disable
+     */
+    public void setColorChangeDebounce(long ms) {
+        colorChangeDispatcher.setDebounce(ms);
+    }
+
+    /**
+     * Set the executor the OnColorSelectionListener is called on.
+     *
+     * @param executor the executor or null to be called on the main thread
+     */
+    public void setColorChangeExecutor(@Nullable Executor executor) {
+        colorChangeDispatcher.setExecutor(executor);
+    }
+
+    /*
+     * Extrapolate the touch a frame ahead from the latest samples. Only the drawn
+     * tracker follows the prediction, the color always comes from real samples.
+     * Returns true if the predicted tracker has moved.
+     */
+    private boolean predictTracker(MotionEvent event) {
+        if (!lowLatencyInput) {
+            return false;
+        }
+
+        boolean moved = false;
+
+        final float x = event.getX();
+        final float y = event.getY();
+        final long time = event.getEventTime();
+
+        if (event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+            float fromX = lastTouchX;
+            float fromY = lastTouchY;
+            long fromTime = lastTouchTime;
+
+            // The latest sample of the batch gives the current speed.
+            final int history = event.getHistorySize();
+            if (history > 0) {
+                fromX = event.getHistoricalX(history - 1);
+                fromY = event.getHistoricalY(history - 1);
+                fromTime = event.getHistoricalEventTime(history - 1);
+            }
+
+            final Rect panel = getTouchedPanel();
+            if (panel != null && time > fromTime) {
+                final float ahead = (float) PREDICTION_MS / (time - fromTime);
+                final int px = Math.round(x + (x - fromX) * ahead);
+                final int py = Math.round(y + (y - fromY) * ahead);
+                final int predictedX = Math.max(panel.left, Math.min(panel.right, px));
+                final int predictedY = Math.max(panel.top, Math.min(panel.bottom, py));
+                if (predictedPanel != panel || predictedPoint.x != predictedX || predictedPoint.y != predictedY) {
+                    predictedPoint.set(predictedX, predictedY);
+                    predictedPanel = panel;
+                    dirtyRect.union(getPanelBounds(panel));
+                    moved = true;
+                }
+            }
+        }
+
+        lastTouchX = x;
+        lastTouchY = y;
+        lastTouchTime = time;
+        return moved;
+    }
+
+    private void endPrediction() {
+        if (predictedPanel != null) {
+            dirtyRect.union(getPanelBounds(predictedPanel));
+            predictedPanel = null;
+        }
+    }
+
+    private Rect getTouchedPanel() {
+        if (!tracking) {
+            return null;
+        }
+
+        final int startX = startTouchPoint.x;
+        final int startY = startTouchPoint.y;
+
+        if (hueRect.contains(startX, startY)) {
+            return hueRect;
+        } else if (satValRect.contains(startX, startY)) {
+            return satValRect;
+        } else if (showAlphaPanel && alphaRect.contains(startX, startY)) {
+            return alphaRect;
+        }
+        return null;
+    }
+
+    private Rect getPanelBounds(Rect panel) {
+        if (panel == hueRect) {
+            return hueBounds;
+        }
+        return panel == satValRect ? satValBounds : alphaBounds;
+    }
+
+    private boolean isTouchOnPanel() {
+        return getTouchedPanel() != null;
+    }
+
+    /*
+     * The trackers follow the last sample of the event, the historical samples
+     * batched in it are only used for the speed of a hue drag.
+     *
+     * Returns true only if the color has actually changed.
+     */
     private boolean moveTrackersIfNeeded(MotionEvent event) {
-        if (startTouchPoint == null) {
+        if (!tracking) {
             return false;
         }
 
@@ -862,25 +2044,160 @@ public class CustomPickerSelector extends View {
         int startY = startTouchPoint.y;
 
         if (hueRect.contains(startX, startY)) {
-            hue = pointToHue(event.getY());
-
-            update = true;
+            final float oldHue = getPanelHue();
+            update = setPanelHue(pointToHue(event.getY()));
+            prefetchHues(event);
+            updateSatValPreview(event);
+
+            // A new hue changes all the panels, even if the color stays the same like a gray does.
+            if (update || getPanelHue() != oldHue) {
+                dirtyRect.set(0, 0, getWidth(), getHeight());
+            }
         } else if (satValRect.contains(startX, startY)) {
-            float[] result = pointToSatVal(event.getX(), event.getY());
-
-            sat = result[0];
-            val = result[1];
+            oldTrackerRect.setEmpty();
+            addSatValTrackerBounds(oldTrackerRect);
+
+            update = pointToSatVal(event.getX(), event.getY());
+
+            // The tracker moves and the alpha gradient changes color.
+            newTrackerRect.setEmpty();
+            addSatValTrackerBounds(newTrackerRect);
+            if (update || !newTrackerRect.equals(oldTrackerRect)) {
+                dirtyRect.union(oldTrackerRect);
+                dirtyRect.union(newTrackerRect);
+                if (update && showAlphaPanel) {
+                    dirtyRect.union(alphaBounds);
+                }
+            }
+        } else if (showAlphaPanel && alphaRect.contains(startX, startY)) {
+            oldTrackerRect.setEmpty();
+            addAlphaTrackerBounds(oldTrackerRect);
 
-            update = true;
-        } else if (alphaRect != null && alphaRect.contains(startX, startY)) {
-            alpha = pointToAlpha((int) event.getX());
+            update = hsvColor.setAlpha(pointToAlpha((int) event.getX()));
 
-            update = true;
+            // Only the tracker moves.
+            if (update) {
+                dirtyRect.union(oldTrackerRect);
+                addAlphaTrackerBounds(dirtyRect);
+            }
         }
 
         return update;
     }
 
+    /*
+     * Show the coarse preview while the hue moves, the full bitmap when the drag ends or pauses.
+     */
+    private void updateSatValPreview(MotionEvent event) {
+        if (!satValProgressive || satValDrawnDirect || getEffectiveRenderMode() == RenderMode.LAYERED) {
+            return;
+        }
+
+        if (event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+            satValPreview = true;
+            removeCallbacks(satValPreviewEndRunnable);
+            postDelayed(satValPreviewEndRunnable, PREVIEW_PAUSE_MS);
+        } else if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+            endSatValPreview();
+        }
+    }
+
+    /*
+     * Render the hues ahead of the drag so they are already in the cache when we get there.
+     */
+    private void prefetchHues(MotionEvent event) {
+        final float hue = getPanelHue();
+        final long time = event.getEventTime();
+
+        if (event.getActionMasked() == MotionEvent.ACTION_MOVE && getEffectiveRenderMode() == RenderMode.RASTER
+                && !satValDrawnDirect && !satValProgressive) {
+            float fromHue = lastTouchHue;
+            long fromTime = lastTouchHueTime;
+
+            // The oldest sample of the batch gives a steadier speed than the previous event.
+            if (event.getHistorySize() > 0) {
+                fromHue = pointToHue(event.getHistoricalY(0));
+                fromTime = event.getHistoricalEventTime(0);
+            }
+
+            if (time > fromTime) {
+                final float velocity = (hue - fromHue) * 1000f / (time - fromTime);
+                getSatValBitmapCache().prefetch(hue, velocity, satValBitmapWidth, satValBitmapHeight);
+            }
+        } else if (event.getActionMasked() == MotionEvent.ACTION_UP && satValBitmapCache != null) {
+            // Not through the getter, a direct shader panel has released its cache on purpose.
+            satValBitmapCache.cancelPrefetch();
+        }
+
+        lastTouchHue = hue;
+        lastTouchHueTime = time;
+    }
+
+    /**
+     * Get the cache of the saturation / value panel bitmaps, its hit and miss
+     * counts can be used to tune the size with {@link SatValBitmapCache#setMaxBytes(long)}.
+     * The cache is shared by all the pickers with the same {@link CacheConfig} and color model.
+     *
+     * @return the cache
+     */
+    public SatValBitmapCache getSatValBitmapCache() {
+        if (satValBitmapCache == null) {
+            satValBitmapCache = SharedRenderCache.acquireSatValCache(getBitmapConfig(), colorModel);
+        }
+        return satValBitmapCache;
+    }
+
+    /*
+     * Only HSV has gradients to draw the panel with, the other models are always rasterized.
+     */
+    @RenderMode
+    private int getEffectiveRenderMode() {
+        return colorModel == ColorModels.HSV ? satValRenderMode : RenderMode.RASTER;
+    }
+
+    private PlaneRasterizer getSatValRasterizer() {
+        if (satValRasterizer == null) {
+            satValRasterizer = getSatValBitmapCache().newRasterizer();
+        }
+        return satValRasterizer;
+    }
+
+    /*
+     * The hue of the hue panel and of the plane beside it, the slider position for other models.
+     */
+    private float getPanelHue() {
+        return colorModel == ColorModels.HSV ? hsvColor.getHue() : modelComponents[ColorModel.SLIDER];
+    }
+
+    private boolean setPanelHue(float hue) {
+        if (colorModel == ColorModels.HSV) {
+            return hsvColor.setHue(hue);
+        }
+        if (modelComponents[ColorModel.SLIDER] == hue) {
+            return false;
+        }
+        modelComponents[ColorModel.SLIDER] = hue;
+        return applyModel();
+    }
+
+    /*
+     * The model components have been moved, the HSV color everything else reads follows them.
+     * Returns true only if the color has changed, the components can move within one 8 bit color.
+     */
+    private boolean applyModel() {
+        return hsvColor.setColor(colorModel.toColor(hsvColor.getAlpha(), modelComponents[ColorModel.SLIDER],
+                modelComponents[ColorModel.X], modelComponents[ColorModel.Y]));
+    }
+
+    /*
+     * The HSV color has been set, the model components follow it.
+     */
+    private void syncModel() {
+        if (colorModel != ColorModels.HSV) {
+            colorModel.fromColor(hsvColor.getColor(), modelComponents);
+        }
+    }
+
     private int dpToPx(float dipValue) {
         DisplayMetrics metrics = mContext.getResources().getDisplayMetrics();
         float val = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dipValue, metrics);
@@ -893,6 +2210,30 @@ public class CustomPickerSelector extends View {
         void onColorChanged(int newColor);
     }
 
+    public interface OnHsvColorChangedListener {
+
+        /**
+         * @param hue   the hue, 0 - 360, kept as it was when the saturation goes to 0
+         * @param sat   the saturation, 0 - 1
+         * @param val   the value, 0 - 1
+         * @param alpha the alpha, 0 - 255
+         */
+        void onColorChanged(float hue, float sat, float val, int alpha);
+    }
+
+    public interface OnColorSelectionListener {
+
+        /**
+         * The color is being changed, limited by the rate or debounce that has been set.
+         */
+        void onColorChanged(int newColor);
+
+        /**
+         * The user has released the touch or the color has been set with a callback.
+         */
+        void onColorCommitted(int color);
+    }
+
     private class BitmapCache {
 
         public Canvas canvas;
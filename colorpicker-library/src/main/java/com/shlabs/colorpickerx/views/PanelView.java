@@ -29,7 +29,6 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Shader;
 import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
@@ -45,7 +44,7 @@ public class PanelView extends View {
 
     private final static int DEFAULT_BORDER_COLOR = 0xFF6E6E6E;
 
-    private Drawable alphaPattern;
+    private AlphaPatternDrawable alphaPattern;
     private Paint borderPaint;
     private Paint colorPaint;
     private Paint alphaPaint;
@@ -190,11 +189,23 @@ public class PanelView extends View {
         int bottom = dRect.bottom - borderWidthPx;
         int right = dRect.right - borderWidthPx;
         colorRect = new Rect(left, top, right, bottom);
+        if (alphaPattern != null) {
+            alphaPattern.releasePattern();
+        }
         alphaPattern = new AlphaPatternDrawable(dpToPx(4));
         alphaPattern.setBounds(Math.round(colorRect.left), Math.round(colorRect.top), Math.round(colorRect.right),
                 Math.round(colorRect.bottom));
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // The pattern is shared, it is picked up again on the next draw.
+        if (alphaPattern != null) {
+            alphaPattern.releasePattern();
+        }
+    }
+
     /**
      * Get the color currently show by this view.
      *